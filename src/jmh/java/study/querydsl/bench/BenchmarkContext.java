@@ -0,0 +1,60 @@
+package study.querydsl.bench;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.QuerydslApplication;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 벤치마크용 Spring 컨텍스트. 임베디드 H2(mem)에 회원 members명, 팀 10개를 넣어 두고 시작한다.
+ * SQL 로그와 검색 결과 캐시는 측정값을 왜곡하므로 끈다. 시작 워밍업도 기본으로 끈다. (JMH가 따로 워밍업한다)
+ */
+final class BenchmarkContext {
+
+    static final int TEAMS = 10;
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * @param overrides "key=value" 형식. 같은 키의 기본값을 대체한다.
+     */
+    static ConfigurableApplicationContext start(int members, String... overrides) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.profiles.active", "bench");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1");
+        properties.put("spring.jpa.properties.hibernate.format_sql", "false");
+        properties.put("spring.jpa.properties.hibernate.use_sql_comments", "false");
+        properties.put("logging.level.org.hibernate.sql", "warn");
+        properties.put("logging.level.p6spy", "warn");
+        properties.put("decorator.datasource.p6spy.enable-logging", "false");
+        properties.put("search.result-cache.enabled", "false");
+        properties.put("startup.warm-up.enabled", "false");
+        for (String override : overrides) {
+            int eq = override.indexOf('=');
+            properties.put(override.substring(0, eq), override.substring(eq + 1));
+        }
+
+        String[] args = properties.entrySet().stream()
+                .map(e -> "--" + e.getKey() + "=" + e.getValue())
+                .toArray(String[]::new);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+        seed(context.getBean(JdbcTemplate.class), members);
+        return context;
+    }
+
+    private static void seed(JdbcTemplate jdbc, int members) {
+        jdbc.update("insert into team (team_id, name) select x, 'team' || x from system_range(1, ?)", TEAMS);
+        jdbc.update("insert into member (member_id, username, age, team_id) "
+                + "select x, 'member' || x, mod(x, 100), mod(x, ?) + 1 from system_range(1, ?)", TEAMS, members);
+        jdbc.execute("alter sequence team_seq restart with " + (TEAMS + 1));
+        jdbc.execute("alter sequence member_seq restart with " + (members + 1));
+        jdbc.execute("analyze");
+    }
+}
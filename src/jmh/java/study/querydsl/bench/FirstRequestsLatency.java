@@ -0,0 +1,74 @@
+package study.querydsl.bench;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+
+/**
+ * 시작 직후 첫 요청들의 지연 시간. JIT/클래스 로딩 상태가 섞이지 않도록 워밍업 유무를 각각 새 JVM에서 실행한다.
+ * 클라이언트 하나가 16가지 조건 조합을 /v1, /v2, /v3 에 돌아가며 순서대로 호출한다.
+ *
+ * <pre>
+ * ./gradlew firstRequests -PfirstRequestsArgs="100000 1000"   (회원 수, 요청 수)
+ * </pre>
+ */
+public final class FirstRequestsLatency {
+
+    private static final String[] ENDPOINTS = {"/v1/members", "/v2/members", "/v3/members"};
+
+    private FirstRequestsLatency() {
+    }
+
+    /**
+     * @param args 회원 수, 요청 수, 워밍업 여부(true/false)
+     */
+    public static void main(String[] args) throws Exception {
+        int members = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        boolean warmUp = args.length > 2 && Boolean.parseBoolean(args[2]);
+
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context = BenchmarkContext.start(members,
+                "spring.main.web-application-type=servlet",
+                "server.port=0",
+                "monitoring.statement-budget.enabled=false",
+                "startup.warm-up.enabled=" + warmUp)) {
+            long startupMillis = (System.nanoTime() - start) / 1_000_000;
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            HttpClient http = HttpClient.newHttpClient();
+
+            long[] latencies = new long[requests];
+            int failed = 0;
+            for (int i = 0; i < requests; i++) {
+                int shape = i % 16;
+                String query = "?page=" + (i % 5) + "&size=20"
+                        + ((shape & 1) != 0 ? "&username=member" + i : "")
+                        + ((shape & 2) != 0 ? "&teamName=team" + (i % BenchmarkContext.TEAMS + 1) : "")
+                        + ((shape & 4) != 0 ? "&ageGoe=" + (i % 50) : "")
+                        + ((shape & 8) != 0 ? "&ageLoe=" + (50 + i % 50) : "");
+                HttpRequest request = HttpRequest.newBuilder(URI.create(
+                        "http://localhost:" + port + ENDPOINTS[i % ENDPOINTS.length] + query)).build();
+                long sent = System.nanoTime();
+                int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                latencies[i] = System.nanoTime() - sent;
+                if (status != 200) {
+                    failed++;
+                }
+            }
+
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            System.out.printf("%n== first %d requests, warm-up %s (startup %dms) ==%n", requests, warmUp ? "on" : "off", startupMillis);
+            System.out.printf("latency ms: first %.1f, p50 %.1f, p99 %.1f, max %.1f, failed %d%n",
+                    latencies[0] / 1e6, millis(sorted, 0.5), millis(sorted, 0.99), sorted[sorted.length - 1] / 1e6, failed);
+        }
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        return sorted[(int) Math.max(0, Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1))] / 1e6;
+    }
+}
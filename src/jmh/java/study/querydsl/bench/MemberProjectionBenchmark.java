@@ -0,0 +1,140 @@
+package study.querydsl.bench;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.support.DtoProjections;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * DTO 프로젝션 방식별 매핑 비용과 fetch join vs 지연 로딩 비교.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemberProjectionBenchmark {
+
+    @Param({"10000"})
+    int members;
+
+    @Param({"1000"})
+    int rows;
+
+    ConfigurableApplicationContext context;
+    JPAQueryFactory queryFactory;
+    TransactionTemplate readOnlyTx;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(members);
+        queryFactory = new JPAQueryFactory(context.getBean(EntityManager.class));
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberDto> projectionBean() {   // setter
+        return queryFactory
+                .select(Projections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(rows)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> projectionFields() { // 필드 직접 접근
+        return queryFactory
+                .select(Projections.fields(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(rows)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> lambdaBean() {   // DtoProjections.bean (LambdaMetafactory)
+        return queryFactory
+                .select(DtoProjections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(rows)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> lambdaFields() { // DtoProjections.fields (MethodHandle)
+        return queryFactory
+                .select(DtoProjections.fields(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(rows)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> projectionConstructor() {
+        return queryFactory
+                .select(Projections.constructor(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(rows)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> queryProjection() {  // @QueryProjection
+        return queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .limit(rows)
+                .fetch();
+    }
+
+    @Benchmark
+    public void lazyTeam(Blackhole blackhole) { // 팀 수만큼 추가 쿼리 (N+1)
+        readOnlyTx.executeWithoutResult(status -> {
+            List<Member> result = queryFactory.selectFrom(member).limit(rows).fetch();
+            for (Member m : result) {
+                blackhole.consume(m.getTeam().getName());
+            }
+        });
+    }
+
+    @Benchmark
+    public void fetchJoinTeam(Blackhole blackhole) {
+        readOnlyTx.executeWithoutResult(status -> {
+            List<Member> result = queryFactory.selectFrom(member).join(member.team, team).fetchJoin().limit(rows).fetch();
+            for (Member m : result) {
+                blackhole.consume(m.getTeam().getName());
+            }
+        });
+    }
+}
@@ -0,0 +1,141 @@
+package study.querydsl.bench;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 과부하 부하 테스트. 커넥션 풀(4개)보다 훨씬 많은 클라이언트가 /v3/members를 계속 호출할 때
+ * 동시 처리 한도(monitoring.concurrency-limit)가 없을 때와 있을 때의 지연 시간 분포를 비교한다.
+ * JMH 벤치마크가 아니라 main으로 실행한다.
+ *
+ * <pre>
+ * ./gradlew loadTest -PloadTestArgs="200000 200 20"   (회원 수, 클라이언트 수, 측정 시간(초))
+ * </pre>
+ */
+public final class MemberSearchLoadTest {
+
+    private MemberSearchLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int members = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 20);
+
+        for (boolean limited : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = BenchmarkContext.start(members,
+                    "spring.main.web-application-type=servlet",
+                    "server.port=0",
+                    "server.tomcat.threads.max=" + (clients + 50),
+                    "spring.datasource.hikari.maximum-pool-size=4",
+                    "spring.datasource.hikari.connection-timeout=2000",
+                    "monitoring.statement-budget.enabled=false",
+                    "logging.level.study.querydsl.monitoring=error",
+                    "monitoring.concurrency-limit.enabled=" + limited)) {
+                int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                run(port, clients, Duration.ofSeconds(5));  // 워밍업
+                Result result = run(port, clients, duration);
+                result.print(limited ? "with concurrency limit" : "without concurrency limit", duration);
+            }
+        }
+    }
+
+    private static Result run(int port, int clients, Duration duration) throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Result> results = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Result result = new Result();
+            results.add(result);
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    int page = ThreadLocalRandom.current().nextInt(100);
+                    int ageGoe = ThreadLocalRandom.current().nextInt(90);
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(
+                                    "http://localhost:" + port + "/v3/members?count=EXACT&size=20&page=" + page + "&ageGoe=" + ageGoe))
+                            .timeout(Duration.ofSeconds(30))
+                            .build();
+                    long start = System.nanoTime();
+                    int status;
+                    try {
+                        status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    result.record(status, System.nanoTime() - start);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+
+        Result total = new Result();
+        results.forEach(total::merge);
+        return total;
+    }
+
+    /**
+     * 클라이언트 스레드 하나가 모으는 결과. (합칠 때만 다른 스레드에서 읽는다)
+     */
+    private static final class Result {
+
+        private long[] okLatencies = new long[1024];
+        private int ok;
+        private long rejected;
+        private long failed;
+
+        void record(int status, long nanos) {
+            if (status == 200) {
+                if (ok == okLatencies.length) {
+                    okLatencies = Arrays.copyOf(okLatencies, ok * 2);
+                }
+                okLatencies[ok++] = nanos;
+            } else if (status == 503) {
+                rejected++;
+            } else {
+                failed++;
+            }
+        }
+
+        void merge(Result other) {
+            for (int i = 0; i < other.ok; i++) {
+                record(200, other.okLatencies[i]);
+            }
+            rejected += other.rejected;
+            failed += other.failed;
+        }
+
+        void print(String title, Duration duration) {
+            long[] sorted = Arrays.copyOf(okLatencies, ok);
+            Arrays.sort(sorted);
+            System.out.printf("%n== %s ==%n", title);
+            System.out.printf("ok %d (%.1f/s), rejected(503) %d, failed %d%n",
+                    ok, ok / (double) duration.toSeconds(), rejected, failed);
+            System.out.printf("ok latency ms: p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+                    millis(sorted, 0.5), millis(sorted, 0.9), millis(sorted, 0.99), millis(sorted, 0.999),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        }
+
+        private static double millis(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[(int) Math.max(0, Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1))] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package study.querydsl.bench;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 대량 저장: save() 반복 vs saveAll(). 매 호출마다 롤백해서 데이터 크기를 유지한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemberWriteBenchmark {
+
+    @Param({"1000"})
+    int members;
+
+    @Param({"5000"})
+    int batch;
+
+    ConfigurableApplicationContext context;
+    MemberJpaRepository memberJpaRepository;
+    EntityManager em;
+    TransactionTemplate tx;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(members);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        em = context.getBean(EntityManager.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void saveLoop() {
+        tx.executeWithoutResult(status -> {
+            for (Member member : newMembers()) {
+                memberJpaRepository.save(member);
+            }
+            em.flush(); // insert를 실제로 실행
+            status.setRollbackOnly();
+        });
+    }
+
+    @Benchmark
+    public void saveAll() {
+        tx.executeWithoutResult(status -> {
+            memberJpaRepository.saveAll(newMembers());
+            status.setRollbackOnly();
+        });
+    }
+
+    private List<Member> newMembers() {
+        List<Member> result = new ArrayList<>(batch);
+        for (int i = 0; i < batch; i++) {
+            result.add(new Member("bench" + i, i % 100));
+        }
+        return result;
+    }
+}
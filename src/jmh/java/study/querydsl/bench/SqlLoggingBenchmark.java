@@ -0,0 +1,74 @@
+package study.querydsl.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기존 SQL 로그 설정(format_sql, use_sql_comments, org.hibernate.sql debug, p6spy 전체 로그)과
+ * prod 프로파일의 샘플링 로그를 같은 페이징 조회로 비교한다. 로그는 build/bench-sql.log로 보낸다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqlLoggingBenchmark {
+
+    @Param({"current", "sampled", "off"})
+    String logging;
+
+    @Param({"10000"})
+    int members;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    MemberSearchCondition condition;
+
+    @Setup
+    public void setUp() {
+        String logConfig = "logging.config=classpath:logback-bench.xml";
+        context = switch (logging) {
+            case "current" -> BenchmarkContext.start(members, logConfig,
+                    "spring.jpa.properties.hibernate.format_sql=true",
+                    "spring.jpa.properties.hibernate.use_sql_comments=true",
+                    "logging.level.org.hibernate.sql=debug",
+                    "logging.level.p6spy=info",
+                    "decorator.datasource.p6spy.enable-logging=true");
+            case "sampled" -> BenchmarkContext.start(members, logConfig,
+                    "monitoring.sql-logging.enabled=true");
+            default -> BenchmarkContext.start(members, logConfig);
+        };
+        memberRepository = context.getBean(MemberRepository.class);
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team1");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageSimple() {
+        return memberRepository.searchPageSimple(condition, PageRequest.of(1, 10));
+    }
+}
@@ -0,0 +1,102 @@
+package study.querydsl.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 앱을 별도 프로세스로 띄워서 프로세스 시작부터 /v1/members가 처음 200을 응답할 때까지의 시간을 잰다.
+ * 표준 실행(java -jar)과 최적화 실행(풀어낸 jar의 app.jar + 라이브러리 jar + AppCDS 아카이브, -Paot이면 Spring AOT까지)을 번갈아 runs번 실행한다.
+ * 경로들과 앱 인자(bench 프로필)는 gradle startupBenchmark 태스크가 시스템 속성으로 넘겨준다.
+ * 두 실행 모두 bench 프로필(메모리 DB, 시작 워밍업 off)로 뜨고, -Paot이면 processAot도 같은 프로필로 실행된다.
+ *
+ * <pre>
+ * ./gradlew startupBenchmark -Paot -PstartupArgs="10"   (실행 횟수)
+ * </pre>
+ */
+public final class StartupBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(120);
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        String java = System.getProperty("startup.java");
+        File appDir = new File(System.getProperty("startup.app-dir"));
+        boolean aot = Boolean.getBoolean("startup.aot");
+        List<String> appArgs = List.of(System.getProperty("startup.args").split(" "));
+
+        List<String> standard = new ArrayList<>(List.of(java, "-jar", System.getProperty("startup.jar")));
+        List<String> optimized = new ArrayList<>(List.of(java, "-XX:SharedArchiveFile=app.jsa", "-Xlog:cds=off",
+                "-Dspring.aot.enabled=" + aot, "-cp", System.getProperty("startup.classpath"), "study.querydsl.QuerydslApplication"));
+
+        long[] standardMillis = new long[runs];
+        long[] optimizedMillis = new long[runs];
+        for (int i = 0; i < runs; i++) {   // 번갈아 실행해서 머신 상태 변화가 한쪽에만 몰리지 않게 한다
+            standardMillis[i] = timeToFirstResponse(standard, appArgs, appDir);
+            optimizedMillis[i] = timeToFirstResponse(optimized, appArgs, appDir);
+        }
+
+        print("java -jar", standardMillis);
+        print(aot ? "exploded + AOT + CDS" : "exploded + CDS", optimizedMillis);
+    }
+
+    private static long timeToFirstResponse(List<String> command, List<String> appArgs, File workingDir) throws Exception {
+        int port = freePort();
+        List<String> full = new ArrayList<>(command);
+        full.addAll(appArgs);
+        full.add("--server.port=" + port);
+
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/v1/members")).build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(full)
+                .directory(workingDir)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("application exited with " + process.exitValue() + ": " + full);
+                }
+                try {
+                    if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException e) {
+                    // 아직 포트가 열리지 않음
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("no response within " + TIMEOUT + ": " + full);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void print(String title, long[] millis) {
+        long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-24s time to first response ms: min %d, median %d, max %d %s%n",
+                title, sorted[0], sorted[sorted.length / 2], sorted[sorted.length - 1], Arrays.toString(millis));
+    }
+}
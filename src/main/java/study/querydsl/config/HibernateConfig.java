@@ -0,0 +1,45 @@
+package study.querydsl.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.monitoring.PlanCacheStatisticsFactory;
+import study.querydsl.monitoring.QueryPlanProperties;
+import study.querydsl.monitoring.QueryShapeTracker;
+import study.querydsl.repository.MemberTableWriteInspector;
+
+@Configuration
+@EnableConfigurationProperties(QueryPlanProperties.class)
+public class HibernateConfig {
+
+    private static final String STATS_FACTORY = "hibernate.stats.factory";
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(MemberTableWriteInspector inspector) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+
+    /**
+     * Hibernate Statistics는 여기서만 켠다. 연산마다 비용이 들므로 기본은 꺼져 있고 prod 프로필도 끈다.
+     * <ul>
+     *     <li>monitoring.statistics.enabled: 2차 캐시 hit/miss 등 (hibernate.second.level.cache.* 메트릭)</li>
+     *     <li>monitoring.query-plan.enabled: 쿼리 플랜 캐시 hit/miss를 메서드별로 모은다. Statistics도 함께 켠다.</li>
+     * </ul>
+     * AOT 처리된 실행에서도 프로필을 따르도록 조건 대신 실행 시점에 속성을 읽는다.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statisticsCustomizer(@Value("${monitoring.statistics.enabled:false}") boolean statistics,
+                                                              QueryPlanProperties queryPlan, QueryShapeTracker tracker) {
+        return properties -> {
+            if (statistics || queryPlan.isEnabled()) {
+                properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            }
+            if (queryPlan.isEnabled()) {
+                properties.put(STATS_FACTORY, new PlanCacheStatisticsFactory(tracker));
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import study.querydsl.controller.AsyncTimeoutOverride;
+import study.querydsl.monitoring.AdaptiveConcurrencyLimiter;
+import study.querydsl.monitoring.ConcurrencyLimitInterceptor;
+import study.querydsl.monitoring.ConcurrencyLimitProperties;
+import study.querydsl.monitoring.NPlusOneDetector;
+import study.querydsl.monitoring.SqlLoggingProperties;
+import study.querydsl.monitoring.StatementBudgetInterceptor;
+import study.querydsl.monitoring.StatementBudgetProperties;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.function.IntSupplier;
+
+@Configuration
+@RequiredArgsConstructor
+@EnableConfigurationProperties({StatementBudgetProperties.class, SqlLoggingProperties.class, ConcurrencyLimitProperties.class})
+public class MonitoringConfig implements WebMvcConfigurer {
+
+    private final NPlusOneDetector nPlusOneDetector;
+    private final StatementBudgetProperties statementBudgetProperties;
+    private final ObjectProvider<AdaptiveConcurrencyLimiter> concurrencyLimiter;
+
+    @Bean
+    @ConditionalOnProperty(prefix = "monitoring.concurrency-limit", name = "enabled", matchIfMissing = true)
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, DataSource dataSource) {
+        return new AdaptiveConcurrencyLimiter(properties, threadsAwaitingConnection(dataSource));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // 거절된 요청은 statement 예산 범위를 열지 않도록 먼저 등록
+        concurrencyLimiter.ifAvailable(limiter -> registry.addInterceptor(new ConcurrencyLimitInterceptor(limiter))
+                .addPathPatterns("/v1/members/**", "/v2/members/**", "/v3/members/**")
+                .excludePathPatterns("/v1/members/stream"));    // 스트리밍은 원래 오래 걸린다
+        if (statementBudgetProperties.isEnabled()) {    // 꺼져 있으면 요청마다 범위를 열지 않는다
+            registry.addInterceptor(new StatementBudgetInterceptor(nPlusOneDetector, statementBudgetProperties))
+                    .addPathPatterns("/v*/members/**");
+        }
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new AsyncTimeoutOverride());
+    }
+
+    /**
+     * Hikari 풀에서 커넥션을 기다리는 스레드 수. (p6spy 등으로 감싸져 있으면 unwrap, Hikari가 아니면 0)
+     */
+    private static IntSupplier threadsAwaitingConnection(DataSource dataSource) {
+        HikariDataSource hikari;
+        try {
+            hikari = dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            hikari = null;
+        }
+        if (hikari == null) {
+            return () -> 0;
+        }
+        HikariDataSource pool = hikari;
+        return () -> {
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();   // 첫 커넥션 전에는 null
+            return mxBean == null ? 0 : mxBean.getThreadsAwaitingConnection();
+        };
+    }
+}
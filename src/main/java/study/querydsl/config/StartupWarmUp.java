@@ -0,0 +1,148 @@
+package study.querydsl.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberKeysetSort;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.CountStrategy;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchCache;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 첫 요청들이 치르는 비용(Hibernate 쿼리 플랜 컴파일, Querydsl 직렬화, Q타입/DTO 클래스 로딩, Jackson serializer 생성,
+ * Hikari 커넥션 생성)을 시작할 때 미리 치른다.
+ *
+ * <p>ApplicationRunner는 readiness가 ACCEPTING_TRAFFIC으로 바뀌기 전에 실행되므로
+ * /actuator/health/readiness는 워밍업이 끝날 때까지 OUT_OF_SERVICE이다.
+ * 워밍업이 실패해도 시작은 계속한다. (첫 요청이 느려질 뿐)
+ * 조건이 없는 조합은 전체 테이블을 읽지 않도록 페이징 조회만 실행한다.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)  // 다른 ApplicationRunner보다 먼저
+@EnableConfigurationProperties(WarmUpProperties.class)
+public class StartupWarmUp implements ApplicationRunner {
+
+    private static final int SHAPES = 16;
+
+    private final WarmUpProperties properties;
+    private final MemberRepository memberRepository;
+    private final MemberJpaRepository memberJpaRepository;
+    private final MemberSearchCache searchCache;
+    private final ObjectMapper objectMapper;
+    private final DataSource dataSource;
+    private final TransactionTemplate readOnly;
+
+    public StartupWarmUp(WarmUpProperties properties, MemberRepository memberRepository, MemberJpaRepository memberJpaRepository,
+                         MemberSearchCache searchCache, ObjectMapper objectMapper, DataSource dataSource,
+                         PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.memberRepository = memberRepository;
+        this.memberJpaRepository = memberJpaRepository;
+        this.searchCache = searchCache;
+        this.objectMapper = objectMapper;
+        this.dataSource = dataSource;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            int connections = primeConnectionPool();
+            for (int i = 0; i < properties.getIterations(); i++) {
+                for (int shape = 0; shape < SHAPES; shape++) {
+                    runQueries(condition(shape, i), PageRequest.of(1 + i, 20));
+                }
+            }
+            searchCache.invalidateAll();    // 워밍업 결과는 실제 요청에 쓸모가 없다
+            log.info("warm-up finished in {}ms ({} shapes x {} iterations, {} connections primed)",
+                    (System.nanoTime() - start) / 1_000_000, SHAPES, properties.getIterations(), connections);
+        } catch (RuntimeException | SQLException | JsonProcessingException e) {
+            log.warn("warm-up failed after {}ms; continuing startup", (System.nanoTime() - start) / 1_000_000, e);
+        }
+    }
+
+    /**
+     * 컨트롤러가 쓰는 조회 메서드를 모두 한 번씩 호출하고 응답과 같은 방식으로 직렬화한다.
+     * 페이징 없는 search는 조건이 있을 때만 호출한다. (content JPQL은 같으므로 조건 없는 플랜은 페이징 조회가 준비한다)
+     */
+    private void runQueries(MemberSearchCondition condition, PageRequest pageable) throws JsonProcessingException {
+        Page<MemberTeamDto> page = readOnly.execute(status -> memberRepository.searchPage(condition, pageable, CountStrategy.EXACT));
+        List<MemberTeamDto> list = page.getContent();
+        if (!isEmpty(condition)) {
+            readOnly.executeWithoutResult(status -> memberJpaRepository.search(condition));
+            readOnly.executeWithoutResult(status -> memberJpaRepository.searchByBuilder(condition));
+            list = readOnly.execute(status -> memberRepository.search(condition));
+        }
+        readOnly.executeWithoutResult(status -> memberRepository.searchPageSimple(condition, pageable));
+        readOnly.executeWithoutResult(status -> memberRepository.searchPageComplex(condition, pageable));
+        readOnly.executeWithoutResult(status -> memberRepository.searchSlice(condition, pageable));
+        readOnly.executeWithoutResult(status -> memberRepository.searchKeyset(condition, MemberKeysetSort.AGE, null, 20));
+        objectMapper.writeValueAsBytes(list);
+        objectMapper.writeValueAsBytes(page);
+    }
+
+    /**
+     * Hikari는 minimumIdle까지 커넥션을 백그라운드에서 천천히 채우므로, 그만큼 동시에 빌렸다 돌려줘서 미리 만들어 둔다.
+     */
+    private int primeConnectionPool() throws SQLException {
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+            return 0;
+        }
+        int minimumIdle = Math.max(0, dataSource.unwrap(HikariDataSource.class).getMinimumIdle());
+        List<Connection> borrowed = new ArrayList<>(minimumIdle);
+        try {
+            for (int i = 0; i < minimumIdle; i++) {
+                borrowed.add(dataSource.getConnection());
+            }
+        } finally {
+            for (Connection connection : borrowed) {
+                connection.close();
+            }
+        }
+        return borrowed.size();
+    }
+
+    /**
+     * 조건 값은 실제 데이터와 맞지 않아도 된다. (쿼리 모양만 중요)
+     * 반복마다 값과 페이지를 바꿔서 검색 결과 캐시가 아니라 DB 조회 경로를 타게 한다.
+     */
+    private static MemberSearchCondition condition(int shape, int iteration) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername((shape & 1) != 0 ? "warm-up-" + iteration : null);
+        condition.setTeamName((shape & 2) != 0 ? "warm-up-" + iteration : null);
+        condition.setAgeGoe((shape & 4) != 0 ? iteration : null);
+        condition.setAgeLoe((shape & 8) != 0 ? 200 + iteration : null);
+        return condition;
+    }
+
+    private static boolean isEmpty(MemberSearchCondition condition) {
+        return condition.getUsername() == null && condition.getTeamName() == null
+                && condition.getAgeGoe() == null && condition.getAgeLoe() == null;
+    }
+}
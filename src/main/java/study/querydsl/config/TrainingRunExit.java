@@ -0,0 +1,27 @@
+package study.querydsl.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * startup.training-run=true이면 준비가 끝나자마자(ApplicationRunner인 StartupWarmUp 이후) 종료한다.
+ * CDS 학습 실행(./gradlew cdsArchive)에서 -XX:ArchiveClassesAtExit가 시작 시 로딩된 클래스를 아카이브로 남기게 하는 용도.
+ * 조회/직렬화 경로의 클래스는 워밍업이 켜져 있어야 로딩되므로 cdsArchive는 startup.warm-up.enabled=true로 실행한다.
+ * AOT 처리된 실행에서는 @ConditionalOnProperty가 빌드 시점에 고정되므로 조건 대신 실행 시점에 속성을 읽는다.
+ */
+@Slf4j
+@Component
+public class TrainingRunExit implements ApplicationListener<ApplicationReadyEvent> {
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!event.getApplicationContext().getEnvironment().getProperty("startup.training-run", Boolean.class, false)) {
+            return;
+        }
+        log.info("training run finished, exiting");
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
@@ -0,0 +1,16 @@
+package study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 시작 시 워밍업 설정. (StartupWarmUp)
+ */
+@Getter @Setter
+@ConfigurationProperties("startup.warm-up")
+public class WarmUpProperties {
+
+    private boolean enabled = true;
+    private int iterations = 3;     // 조건 조합마다 반복 횟수 (플랜 컴파일/클래스 로딩은 1번이면 되고, 나머지는 JIT용)
+}
@@ -0,0 +1,31 @@
+package study.querydsl.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * 오래 걸리는 핸들러(/v1/members/stream)만 전역 비동기 타임아웃(spring.mvc.async.request-timeout)을 덮어쓴다.
+ * StreamingResponseBody는 타임아웃을 따로 받지 않으므로 핸들러가 요청 속성에 남긴 값을 비동기 처리 시작 직전에 적용한다.
+ */
+public class AsyncTimeoutOverride implements CallableProcessingInterceptor {
+
+    private static final String TIMEOUT = AsyncTimeoutOverride.class.getName() + ".timeout";
+
+    public static void set(HttpServletRequest request, Duration timeout) {
+        request.setAttribute(TIMEOUT, timeout);
+    }
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        Object timeout = request.getAttribute(TIMEOUT, RequestAttributes.SCOPE_REQUEST);
+        if (timeout instanceof Duration duration && request instanceof AsyncWebRequest asyncRequest) {
+            asyncRequest.setTimeout(duration.toMillis());
+        }
+    }
+}
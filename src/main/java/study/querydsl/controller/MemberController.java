@@ -1,16 +1,35 @@
 package study.querydsl.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.querydsl.dto.KeysetPage;
+import study.querydsl.dto.MemberKeysetSort;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.CountStrategy;
+import study.querydsl.repository.InvalidCursorException;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
@@ -18,19 +37,99 @@ public class MemberController {
 
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${search.stream.fetch-size:500}")
+    private int streamFetchSize;
+
+    @Value("${search.stream.timeout:10m}")
+    private Duration streamTimeout;
 
     @GetMapping("/v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
         return memberJpaRepository.search(condition);
     }
 
+    @GetMapping(value = "/v1/members/stream", produces = "application/x-ndjson")
+    public StreamingResponseBody streamMemberV1(MemberSearchCondition condition, HttpServletRequest request) {  // 한 줄에 하나씩 바로 응답에 쓴다 (NDJSON)
+        AsyncTimeoutOverride.set(request, streamTimeout);   // 다른 비동기 핸들러는 전역 기본값을 그대로 쓴다
+        return out -> {
+            try {
+                int[] written = {0};
+                memberJpaRepository.streamSearch(condition, streamFetchSize, dto -> {
+                    writeLine(out, dto);
+                    if (++written[0] % streamFetchSize == 0) {
+                        flush(out); // 연결이 끊겼으면 여기서 예외가 나서 DB 조회도 중단된다.
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
     @GetMapping("/v2/members")
     public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
         return memberRepository.searchPageSimple(condition, pageable);
     }
 
     @GetMapping("/v3/members")
-    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageComplex(condition, pageable);
+    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable,
+                                              @RequestParam(defaultValue = "SKIP_IF_POSSIBLE") CountStrategy count,
+                                              @RequestParam(defaultValue = "false") boolean concurrentCount) {
+        if (concurrentCount) {
+            return memberRepository.searchPageConcurrent(condition, pageable);
+        }
+        return memberRepository.searchPage(condition, pageable, count);
+    }
+
+    @GetMapping("/v1/members/async")
+    public CompletableFuture<List<MemberTeamDto>> searchMemberV1Async(MemberSearchCondition condition) {  // 조회하는 동안 Tomcat 스레드를 반납
+        return memberRepository.searchAsync(condition);
+    }
+
+    @GetMapping("/v3/members/async")
+    public CompletableFuture<Page<MemberTeamDto>> searchMemberV3Async(MemberSearchCondition condition, Pageable pageable,
+                                                                      @RequestParam(defaultValue = "SKIP_IF_POSSIBLE") CountStrategy count) {
+        return memberRepository.searchPageAsync(condition, pageable, count);
+    }
+
+    @GetMapping("/v3/members/slice")
+    public Slice<MemberTeamDto> searchMemberV3Slice(MemberSearchCondition condition, Pageable pageable) {
+        return memberRepository.searchSlice(condition, pageable);
+    }
+
+    @GetMapping("/v4/members")
+    public KeysetPage<MemberTeamDto> searchMemberV4(MemberSearchCondition condition,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "ID") MemberKeysetSort sort,
+                                                    @RequestParam(defaultValue = "20") int size) {
+        if (size < 1 || size > 1000) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and 1000");
+        }
+        return memberRepository.searchKeyset(condition, sort, cursor, size);
+    }
+
+    private void writeLine(OutputStream out, MemberTeamDto dto) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(dto));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flush(OutputStream out) {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String invalidCursor() {
+        return "invalid cursor";    // 원인 메시지/토큰은 응답에 넣지 않는다
     }
 }
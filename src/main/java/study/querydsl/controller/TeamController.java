@@ -0,0 +1,21 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.repository.TeamStatsReadModel;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamStatsReadModel teamStatsReadModel;
+
+    @GetMapping("/v1/teams/stats")
+    public List<TeamStatsDto> teamStatsV1() {  // 회원 테이블을 group by 하지 않고 메모리의 집계를 반환
+        return teamStatsReadModel.findAll();
+    }
+}
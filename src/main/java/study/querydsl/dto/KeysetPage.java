@@ -0,0 +1,22 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * keyset(seek) 페이징 결과. 다음 페이지는 nextCursor를 그대로 넘겨서 조회한다.
+ */
+@Getter
+public class KeysetPage<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+    private final boolean hasNext;
+
+    public KeysetPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+}
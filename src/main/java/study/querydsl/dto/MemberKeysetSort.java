@@ -0,0 +1,10 @@
+package study.querydsl.dto;
+
+/**
+ * keyset(seek) 페이징에서 사용할 정렬 키.
+ * username은 null이 허용되는 컬럼이라 keyset 키로 쓰지 않는다.
+ */
+public enum MemberKeysetSort {
+    ID,     // (member.id)
+    AGE     // (member.age, member.id)
+}
@@ -0,0 +1,25 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+@Data
+public class TeamStatsDto {
+
+    private Long teamId;
+    private String teamName;
+    private long memberCount;
+    private long ageSum;
+    private Integer minAge;     // 회원이 없으면 null
+    private Integer maxAge;
+    private Double averageAge;
+
+    public TeamStatsDto(Long teamId, String teamName, long memberCount, long ageSum, Integer minAge, Integer maxAge) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.memberCount = memberCount;
+        this.ageSum = ageSum;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.averageAge = memberCount == 0 ? null : (double) ageSum / memberCount;
+    }
+}
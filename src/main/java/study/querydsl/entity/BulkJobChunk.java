@@ -0,0 +1,48 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 청크 단위 벌크 작업의 진행 기록. 청크의 변경과 같은 트랜잭션에서 저장되므로
+ * 기록이 있으면 그 청크는 반영이 끝난 것이다. (ChunkedBulkRunner)
+ * 청크 크기와 조건의 지문을 함께 남겨서 다른 청크 경계나 조건으로 이어서 실행하지 못하게 한다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(of = {"jobName", "chunkStart", "chunkSize", "affectedRows"})
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_bulk_job_chunk", columnNames = {"job_name", "chunk_start"}))
+public class BulkJobChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bulk_job_chunk_seq")
+    @SequenceGenerator(name = "bulk_job_chunk_seq", sequenceName = "bulk_job_chunk_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false)
+    private String jobName;
+
+    @Column(name = "chunk_start", nullable = false)
+    private long chunkStart;    // [chunkStart, chunkStart + chunkSize) 범위의 id
+
+    @Column(name = "chunk_size", nullable = false)
+    private long chunkSize;
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint; // 작업 종류 + 엔티티 + 조건의 SHA-256
+
+    private long affectedRows;
+    private LocalDateTime completedAt;
+
+    public BulkJobChunk(String jobName, long chunkStart, long chunkSize, String fingerprint, long affectedRows) {
+        this.jobName = jobName;
+        this.chunkStart = chunkStart;
+        this.chunkSize = chunkSize;
+        this.fingerprint = fingerprint;
+        this.affectedRows = affectedRows;
+        this.completedAt = LocalDateTime.now();
+    }
+}
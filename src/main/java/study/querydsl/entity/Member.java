@@ -2,14 +2,23 @@ package study.querydsl.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import study.querydsl.repository.MemberSearchCacheInvalidator;
 
 @Entity
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
+@EntityListeners(MemberSearchCacheInvalidator.class)   // 검색 캐시 무효화
+@Table(indexes = {  // 검색 조건 컬럼 (MemberSearchPlanTest가 실행 계획을 확인)
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_age", columnList = "age"),
+        @Index(name = "idx_member_team_age", columnList = "team_id, age")   // 팀 조인 + 나이 범위
+})
 public class Member {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq")
+    @SequenceGenerator(name = "member_seq", sequenceName = "member_seq", allocationSize = 100)
     @Column(name = "member_id")
     private Long id;
     private String username;
@@ -0,0 +1,81 @@
+package study.querydsl.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.function.IntSupplier;
+
+/**
+ * AIMD 방식의 동시 처리 한도 (Netflix concurrency-limits의 AIMDLimit과 같은 방식).
+ * <ul>
+ *     <li>요청이 느리거나(latency-threshold 초과), 실패했거나, 커넥션 풀 대기가 쌓이면 한도를 backoff-ratio 배로 줄인다.</li>
+ *     <li>정상 응답이면 한도를 1/limit 만큼 늘린다. (한도만큼 응답이 돌아오면 +1) 한도의 절반도 쓰지 않을 때는 늘리지 않는다.</li>
+ * </ul>
+ * 한도를 넘는 요청은 기다리지 않고 바로 거절한다. (ConcurrencyLimitInterceptor가 503 응답)
+ */
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    private final ConcurrencyLimitProperties properties;
+    private final IntSupplier threadsAwaitingConnection;
+
+    private double limit;
+    private int inFlight;
+    private long rejected;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, IntSupplier threadsAwaitingConnection) {
+        this.properties = properties;
+        this.threadsAwaitingConnection = threadsAwaitingConnection;
+        this.limit = properties.getInitialLimit();
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            rejected++;
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * @param failed 5xx 응답 또는 예외 (커넥션 타임아웃 등)
+     */
+    public void release(long latencyNanos, boolean failed) {
+        boolean overloaded = failed
+                || latencyNanos > properties.getLatencyThreshold().toNanos()
+                || threadsAwaitingConnection.getAsInt() > properties.getPoolWaitThreshold();
+        synchronized (this) {
+            int used = inFlight;
+            inFlight--;
+            if (overloaded) {
+                limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+            } else if (used * 2 >= limit) {
+                limit = Math.min(properties.getMaxLimit(), limit + 1.0 / limit);
+            }
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized long getRejectedCount() {
+        return rejected;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("http.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .register(registry);
+        Gauge.builder("http.concurrency.inflight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                .register(registry);
+        FunctionCounter.builder("http.concurrency.rejected", this, AdaptiveConcurrencyLimiter::getRejectedCount)
+                .register(registry);
+    }
+}
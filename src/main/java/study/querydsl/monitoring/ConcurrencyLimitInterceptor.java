@@ -0,0 +1,48 @@
+package study.querydsl.monitoring;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.io.IOException;
+
+/**
+ * 동시 처리 한도를 넘는 요청은 커넥션 풀에서 기다리게 하지 않고 바로 503으로 거절한다.
+ * 비동기 핸들러는 첫 디스패치에서 얻은 허가를 비동기 처리가 끝날 때(ASYNC 디스패치의 afterCompletion)까지 유지한다.
+ */
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String STARTED_AT = ConcurrencyLimitInterceptor.class.getName() + ".startedAt";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitInterceptor(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        if (!limiter.tryAcquire()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Concurrency limit exceeded");
+            return false;
+        }
+        request.setAttribute(STARTED_AT, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object startedAt = request.getAttribute(STARTED_AT);
+        if (startedAt instanceof Long start) {
+            request.removeAttribute(STARTED_AT);
+            limiter.release(System.nanoTime() - start, ex != null || response.getStatus() >= 500);
+        }
+    }
+}
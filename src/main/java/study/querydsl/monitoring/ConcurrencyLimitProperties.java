@@ -0,0 +1,23 @@
+package study.querydsl.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 회원 검색 API(/v1 ~ /v3)의 동시 처리 한도(AIMD). AdaptiveConcurrencyLimiter 참고.
+ */
+@Getter @Setter
+@ConfigurationProperties("monitoring.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 200;
+    private Duration latencyThreshold = Duration.ofMillis(500);    // 이보다 느린 응답은 과부하 신호
+    private int poolWaitThreshold = 5;     // 커넥션을 기다리는 스레드가 이보다 많으면 과부하 신호
+    private double backoffRatio = 0.9;     // 과부하 신호마다 한도에 곱하는 값
+}
@@ -0,0 +1,59 @@
+package study.querydsl.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * p6spy(DataSourceDecoratorAutoConfiguration)가 등록된 JdbcEventListener 빈을 호출해 준다.
+ * 스레드별 누적 횟수는 "이 메서드 호출 동안 실행된 statement 수"를 구하는 데 쓰고 (호출 전후 차이),
+ * 전체 누적 횟수는 배치 동작 확인용이다. batch로 묶인 insert는 executeBatch 한 번이 한 번의 실행이다.
+ */
+@Component
+public class JdbcStatementCounter extends JdbcEventListener {
+
+    private static final ThreadLocal<long[]> CURRENT_THREAD = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong batchExecutions = new AtomicLong();
+    private final AtomicLong batchedStatements = new AtomicLong();
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        CURRENT_THREAD.get()[0]++;
+        executions.incrementAndGet();
+    }
+
+    @Override
+    public void onAfterExecuteBatch(StatementInformation statementInformation, long timeElapsedNanos, int[] updateCounts, SQLException e) {
+        batchExecutions.incrementAndGet();
+        super.onAfterExecuteBatch(statementInformation, timeElapsedNanos, updateCounts, e);    // onAfterAnyExecute
+    }
+
+    @Override
+    public void onAfterAddBatch(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        batchedStatements.incrementAndGet();
+    }
+
+    /**
+     * 현재 스레드에서 지금까지 실행된 statement 수. 감소하지 않는다.
+     */
+    public long currentThreadCount() {
+        return CURRENT_THREAD.get()[0];
+    }
+
+    public long getExecutions() {
+        return executions.get();
+    }
+
+    public long getBatchExecutions() {
+        return batchExecutions.get();
+    }
+
+    public long getBatchedStatements() {
+        return batchedStatements.get();
+    }
+}
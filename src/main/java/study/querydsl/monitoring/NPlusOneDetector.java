@@ -0,0 +1,124 @@
+package study.querydsl.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 범위(HTTP 요청, 또는 테스트에서 직접 연 범위) 안에서 실행된 statement를 SQL 모양별로 센다.
+ * 같은 모양이 반복되거나(지연 로딩 N+1) 전체 개수가 예산을 넘으면 경고하거나 예외를 던진다.
+ */
+@Slf4j
+@Component
+public class NPlusOneDetector extends JdbcEventListener {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final StatementBudgetProperties properties;
+
+    public NPlusOneDetector(StatementBudgetProperties properties) {
+        this.properties = properties;
+    }
+
+    public Scope open(String name) {
+        return open(name, properties.budgetFor(name), properties.getMode());
+    }
+
+    public Scope open(String name, int budget, StatementBudgetProperties.Mode mode) {
+        Scope scope = new Scope(name, budget, mode, properties.getRepeatThreshold(), CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            return;     // 열린 범위가 없으면 SQL 모양(정규식 4번)을 계산하지 않는다
+        }
+        String shape = shapeOf(statementInformation.getSql());
+        for (Scope s = scope; s != null; s = s.parent) {
+            s.record(shape);
+        }
+    }
+
+    /**
+     * 주석, 리터럴, 공백 차이를 없애서 바인딩 값만 다른 SQL을 같은 모양으로 만든다.
+     */
+    static String shapeOf(String sql) {
+        String shape = COMMENT.matcher(sql).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final String name;
+        private final int budget;
+        private final StatementBudgetProperties.Mode mode;
+        private final int repeatThreshold;
+        private final Scope parent;
+        private final Map<String, Integer> shapes = new LinkedHashMap<>();
+        private int total;
+
+        private Scope(String name, int budget, StatementBudgetProperties.Mode mode, int repeatThreshold, Scope parent) {
+            this.name = name;
+            this.budget = budget;
+            this.mode = mode;
+            this.repeatThreshold = repeatThreshold;
+            this.parent = parent;
+        }
+
+        private void record(String shape) {
+            shapes.merge(shape, 1, Integer::sum);
+            total++;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public Map<String, Integer> getRepeatedShapes() {
+            return shapes.entrySet().stream()
+                    .filter(e -> e.getValue() >= repeatThreshold)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() == this) {
+                if (parent != null) {
+                    CURRENT.set(parent);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+
+            Map<String, Integer> repeated = getRepeatedShapes();
+            if (total <= budget && repeated.isEmpty()) {
+                return;
+            }
+            String message = String.format("[%s] %d statements (budget %d), repeated: %s", name, total, budget, repeated);
+            if (mode == StatementBudgetProperties.Mode.FAIL) {
+                throw new StatementBudgetExceededException(message);
+            }
+            log.warn("Possible N+1 {}", message);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package study.querydsl.monitoring;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+/**
+ * Hibernate 기본 Statistics에 쿼리 플랜 캐시 hit/miss를 JPQL 문자열과 함께 QueryShapeTracker로 넘기는 훅만 더한다.
+ * (기본 Statistics는 전체 hit/miss 수만 센다) hibernate.stats.factory로 등록한다. (HibernateConfig)
+ */
+public class PlanCacheStatisticsFactory implements StatisticsFactory {
+
+    private final QueryShapeTracker tracker;
+
+    public PlanCacheStatisticsFactory(QueryShapeTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+        return new StatisticsImpl(sessionFactory) {
+            @Override
+            public void queryPlanCacheHit(String query) {
+                super.queryPlanCacheHit(query);
+                tracker.planCacheHit(query);
+            }
+
+            @Override
+            public void queryPlanCacheMiss(String query) {
+                super.queryPlanCacheMiss(query);
+                tracker.planCacheMiss(query);
+            }
+        };
+    }
+}
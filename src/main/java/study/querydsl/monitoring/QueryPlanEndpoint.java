@@ -0,0 +1,57 @@
+package study.querydsl.monitoring;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * /actuator/queryplans : Hibernate 쿼리 플랜 캐시 전체 hit/miss와 캐시 크기,
+ * 리포지토리 메서드별 서로 다른 JPQL 수, 재컴파일(밀려난 뒤 다시 miss) 수, 많이 실행된 JPQL.
+ * DELETE로 메서드별 집계를 초기화한다.
+ */
+@Component
+@Endpoint(id = "queryplans")
+public class QueryPlanEndpoint {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final QueryShapeTracker tracker;
+    private final int planCacheMaxSize;
+
+    public QueryPlanEndpoint(EntityManagerFactory entityManagerFactory, QueryShapeTracker tracker,
+                             @Value("${spring.jpa.properties.hibernate.query.plan_cache_max_size:2048}") int planCacheMaxSize) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.tracker = tracker;
+        this.planCacheMaxSize = planCacheMaxSize;
+    }
+
+    @ReadOperation
+    public QueryPlanReport queryPlans() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long distinctShapes = tracker.distinctShapes();
+        return new QueryPlanReport(
+                statistics.isStatisticsEnabled(),
+                planCacheMaxSize,
+                statistics.getQueryPlanCacheHitCount(),
+                statistics.getQueryPlanCacheMissCount(),
+                distinctShapes,
+                distinctShapes > planCacheMaxSize,     // 서로 다른 JPQL이 캐시보다 많으면 자주 쓰는 플랜도 밀려난다
+                tracker.report());
+    }
+
+    @DeleteOperation
+    public void reset() {
+        tracker.reset();
+    }
+
+    public record QueryPlanReport(boolean statisticsEnabled, int planCacheMaxSize, long planCacheHits, long planCacheMisses,
+                                  long distinctShapes, boolean exceedsPlanCache,
+                                  Map<String, QueryShapeTracker.MethodReport> methods) {
+    }
+}
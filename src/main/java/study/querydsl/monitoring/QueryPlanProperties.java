@@ -0,0 +1,18 @@
+package study.querydsl.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Hibernate 쿼리 플랜 캐시 관찰 설정.
+ */
+@Getter @Setter
+@ConfigurationProperties("monitoring.query-plan")
+public class QueryPlanProperties {
+
+    private boolean enabled = false;    // Hibernate Statistics를 켠다 (운영에서는 끈다)
+    private int shapeWarningThreshold = 50;     // 한 메서드가 만드는 서로 다른 JPQL이 이 수를 넘으면 경고
+    private int maxTrackedShapes = 500;         // 메서드별로 문자열을 보관하는 최대 JPQL 수 (넘으면 개수만 센다)
+    private int topShapes = 10;
+}
@@ -0,0 +1,171 @@
+package study.querydsl.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hibernate 쿼리 플랜 캐시 조회(hit/miss)를 JPQL 문자열과 리포지토리 메서드별로 모은다.
+ * 메서드는 RepositoryMetricsAspect가 스레드에 걸어 두고, 조회 기록은 PlanCacheStatisticsFactory가 만든 Statistics가 넘겨준다.
+ * searchAsync처럼 다른 스레드에서 실행되는 자기 호출은 aspect를 거치지 않으므로 TaskDecorator로 호출한 메서드를 넘긴다.
+ *
+ * <p>Querydsl 쿼리는 호출마다 JPQL로 직렬화되므로 상수나 길이가 다른 in 목록이 JPQL에 그대로 들어가면
+ * 호출마다 다른 문자열이 되어 플랜 캐시를 밀어낸다. 이미 한 번 miss였던 JPQL이 다시 miss이면 캐시에서 밀려났던 것으로 보고 센다.
+ */
+@Slf4j
+@Component
+public class QueryShapeTracker implements TaskDecorator {
+
+    static final String NO_METHOD = "(none)";
+
+    private static final ThreadLocal<String> CURRENT_METHOD = new ThreadLocal<>();
+
+    private final QueryPlanProperties properties;
+    private final Map<String, MethodShapes> methods = new ConcurrentHashMap<>();
+
+    public QueryShapeTracker(QueryPlanProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 현재 스레드의 메서드를 바꾸고 이전 값을 돌려준다. (중첩 호출은 안쪽 메서드로 기록)
+     */
+    public String enter(String method) {
+        String previous = CURRENT_METHOD.get();
+        CURRENT_METHOD.set(method);
+        return previous;
+    }
+
+    public void exit(String previous) {
+        if (previous == null) {
+            CURRENT_METHOD.remove();
+        } else {
+            CURRENT_METHOD.set(previous);
+        }
+    }
+
+    /**
+     * 호출 스레드의 메서드를 작업 스레드에서도 걸어 둔다. (AsyncQueryExecutor, ReadOnlyQueryExecutor)
+     */
+    @Override
+    public Runnable decorate(Runnable task) {
+        String method = CURRENT_METHOD.get();
+        if (method == null) {
+            return task;
+        }
+        return () -> {
+            String previous = enter(method);
+            try {
+                task.run();
+            } finally {
+                exit(previous);
+            }
+        };
+    }
+
+    void planCacheHit(String jpql) {
+        record(jpql, true);
+    }
+
+    void planCacheMiss(String jpql) {
+        record(jpql, false);
+    }
+
+    private void record(String jpql, boolean hit) {
+        String method = CURRENT_METHOD.get();
+        MethodShapes shapes = methods.computeIfAbsent(method != null ? method : NO_METHOD, m -> new MethodShapes());
+        shapes.record(jpql, hit, properties.getMaxTrackedShapes());
+        if (shapes.distinct.sum() > properties.getShapeWarningThreshold() && shapes.warned.compareAndSet(false, true)) {
+            log.warn("{} generated more than {} distinct JPQL strings; inline constants or variable-length in() lists may be churning the query plan cache. latest: {}",
+                    method != null ? method : NO_METHOD, properties.getShapeWarningThreshold(), jpql);
+        }
+    }
+
+    public Map<String, MethodReport> report() {
+        Map<String, MethodReport> result = new TreeMap<>();
+        methods.forEach((method, shapes) -> result.put(method, shapes.report(properties.getTopShapes(), properties.getShapeWarningThreshold())));
+        return result;
+    }
+
+    public long distinctShapes() {
+        return methods.values().stream().mapToLong(shapes -> shapes.distinct.sum()).sum();
+    }
+
+    public void reset() {
+        methods.clear();
+    }
+
+    private static final class MethodShapes {
+        private final Map<String, ShapeCounts> shapes = new ConcurrentHashMap<>();
+        private final LongAdder distinct = new LongAdder();
+        private final LongAdder untracked = new LongAdder();   // maxTrackedShapes를 넘어 보관하지 않은 JPQL의 조회 수
+        private final AtomicBoolean warned = new AtomicBoolean();
+
+        void record(String jpql, boolean hit, int maxTracked) {
+            ShapeCounts counts = shapes.get(jpql);
+            if (counts == null) {
+                if (shapes.size() >= maxTracked) {
+                    untracked.increment();
+                    if (!hit) {
+                        distinct.increment();  // 보관하지 않으므로 근사치 (다시 miss된 같은 JPQL도 센다)
+                    }
+                    return;
+                }
+                ShapeCounts created = new ShapeCounts();
+                counts = shapes.putIfAbsent(jpql, created);
+                if (counts == null) {
+                    counts = created;
+                    distinct.increment();
+                }
+            }
+            counts.record(hit);
+        }
+
+        MethodReport report(int top, int warningThreshold) {
+            long hits = 0;
+            long misses = 0;
+            long evictions = 0;
+            for (ShapeCounts counts : shapes.values()) {
+                hits += counts.hits.sum();
+                misses += counts.misses.sum();
+                evictions += Math.max(0, counts.misses.sum() - 1);
+            }
+            List<ShapeReport> topShapes = shapes.entrySet().stream()
+                    .map(e -> new ShapeReport(e.getKey(), e.getValue().hits.sum() + e.getValue().misses.sum(), e.getValue().misses.sum()))
+                    .sorted(Comparator.comparingLong(ShapeReport::executions).reversed())
+                    .limit(top)
+                    .toList();
+            long distinctShapes = distinct.sum();
+            return new MethodReport(distinctShapes, hits, misses, evictions, untracked.sum(),
+                    distinctShapes > warningThreshold, topShapes);
+        }
+    }
+
+    private static final class ShapeCounts {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        void record(boolean hit) {
+            (hit ? hits : misses).increment();
+        }
+    }
+
+    /**
+     * @param evictions 같은 JPQL이 두 번째 이후로 miss된 횟수 (캐시에서 밀려났다가 다시 컴파일됨)
+     * @param untracked maxTrackedShapes를 넘어서 문자열을 보관하지 않은 JPQL의 조회 수
+     */
+    public record MethodReport(long distinctShapes, long hits, long misses, long evictions, long untracked,
+                               boolean unbounded, List<ShapeReport> topShapes) {
+    }
+
+    public record ShapeReport(String jpql, long executions, long misses) {
+    }
+}
@@ -0,0 +1,121 @@
+package study.querydsl.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.KeysetPage;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 리포지토리 메서드별 지연 시간, 반환 로우 수, 실행된 JDBC statement 수를 기록한다.
+ * statement 수는 호출한 스레드에서 실행된 것만 센다. (searchPageConcurrent의 count 쿼리는 제외)
+ * 호출 동안 QueryShapeTracker에 메서드 이름을 걸어 두어 쿼리 플랜 캐시 조회가 메서드별로 모이게 한다.
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    static final String LATENCY = "repository.method";
+    static final String ROWS = "repository.rows";
+    static final String STATEMENTS = "repository.statements";
+
+    private final MeterRegistry registry;
+    private final JdbcStatementCounter statementCounter;
+    private final QueryShapeTracker shapeTracker;
+
+    public RepositoryMetricsAspect(MeterRegistry registry, JdbcStatementCounter statementCounter, QueryShapeTracker shapeTracker) {
+        this.registry = registry;
+        this.statementCounter = statementCounter;
+        this.shapeTracker = shapeTracker;
+    }
+
+    @Around("within(study.querydsl.repository.MemberRepositoryImpl)"
+            + " || within(study.querydsl.repository.MemberJpaRepository)"
+            + " || within(study.querydsl.repository.support.Querydsl4RepositorySupport+)")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        String shape = conditionShape(joinPoint.getArgs());
+        long statementsBefore = statementCounter.currentThreadCount();
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "success";
+        String outerMethod = shapeTracker.enter(method);
+        try {
+            Object result = joinPoint.proceed();
+            long rows = rowCount(result);
+            if (rows >= 0) {
+                DistributionSummary.builder(ROWS)
+                        .tag("method", method)
+                        .register(registry)
+                        .record(rows);
+            }
+            return result;
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            shapeTracker.exit(outerMethod);
+            sample.stop(Timer.builder(LATENCY)
+                    .tag("method", method)
+                    .tag("shape", shape)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry));
+            DistributionSummary.builder(STATEMENTS)
+                    .tag("method", method)
+                    .register(registry)
+                    .record(statementCounter.currentThreadCount() - statementsBefore);
+        }
+    }
+
+    /**
+     * 검색 조건 중 값이 있는 항목의 조합. (최대 16가지라 태그 값으로 써도 카디널리티가 제한된다)
+     */
+    static String conditionShape(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof MemberSearchCondition condition) {
+                StringBuilder shape = new StringBuilder();
+                appendIf(shape, hasText(condition.getUsername()), "username");
+                appendIf(shape, hasText(condition.getTeamName()), "teamName");
+                appendIf(shape, condition.getAgeGoe() != null, "ageGoe");
+                appendIf(shape, condition.getAgeLoe() != null, "ageLoe");
+                return shape.length() == 0 ? "empty" : shape.toString();
+            }
+        }
+        return "none";
+    }
+
+    private static void appendIf(StringBuilder shape, boolean present, String name) {
+        if (present) {
+            if (shape.length() > 0) {
+                shape.append('+');
+            }
+            shape.append(name);
+        }
+    }
+
+    private static long rowCount(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof KeysetPage<?> page) {
+            return page.getContent().size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return -1;  // void, count 등 로우가 아닌 결과
+    }
+}
@@ -0,0 +1,79 @@
+package study.querydsl.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /actuator/repositories : 리포지토리 메서드별 호출 수, 지연 시간, 평균 로우 수, 평균 statement 수.
+ * 조건 조합(shape)별 값은 /actuator/metrics/repository.method?tag=shape:... 로 볼 수 있다.
+ */
+@Component
+@Endpoint(id = "repositories")
+public class RepositoryMetricsEndpoint {
+
+    private final MeterRegistry registry;
+
+    public RepositoryMetricsEndpoint(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @ReadOperation
+    public Map<String, MethodStats> repositories() {
+        Map<String, MethodStats> result = new TreeMap<>();
+        for (Timer timer : registry.find(RepositoryMetricsAspect.LATENCY).timers()) {
+            MethodStats stats = result.computeIfAbsent(timer.getId().getTag("method"), m -> new MethodStats());
+            stats.calls += timer.count();
+            stats.totalMillis += timer.totalTime(TimeUnit.MILLISECONDS);
+            stats.maxMillis = Math.max(stats.maxMillis, timer.max(TimeUnit.MILLISECONDS));
+        }
+        for (DistributionSummary summary : registry.find(RepositoryMetricsAspect.ROWS).summaries()) {
+            MethodStats stats = result.get(summary.getId().getTag("method"));
+            if (stats != null) {
+                stats.meanRows = summary.mean();
+            }
+        }
+        for (DistributionSummary summary : registry.find(RepositoryMetricsAspect.STATEMENTS).summaries()) {
+            MethodStats stats = result.get(summary.getId().getTag("method"));
+            if (stats != null) {
+                stats.meanStatements = summary.mean();
+            }
+        }
+        return result;
+    }
+
+    public static class MethodStats {
+        private long calls;
+        private double totalMillis;
+        private double maxMillis;
+        private double meanRows;
+        private double meanStatements;
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public double getMeanMillis() {
+            return calls == 0 ? 0 : totalMillis / calls;
+        }
+
+        public double getMaxMillis() {
+            return maxMillis;
+        }
+
+        public double getMeanRows() {
+            return meanRows;
+        }
+
+        public double getMeanStatements() {
+            return meanStatements;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package study.querydsl.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * p6spy 기본 로깅(spy.properties의 Slf4JLogger)은 모든 statement의 파라미터를 문자열로 만든다.
+ * 이 리스너는 sampleRate 비율만큼, 또는 slowThreshold 이상 걸린 statement만 골라서
+ * 로그를 남기기로 정한 뒤에야 파라미터를 렌더링한다. (로거 "sql.sampled"는 logback-spring.xml에서 비동기 appender로 보낸다)
+ */
+@Component
+public class SampledSqlLogger extends JdbcEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger("sql.sampled");
+
+    private final SqlLoggingProperties properties;
+
+    public SampledSqlLogger(SqlLoggingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (timeElapsedNanos >= properties.getSlowThreshold().toNanos()) {
+            if (log.isWarnEnabled()) {
+                log.warn("slow {}ms | {}", TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos), statementInformation.getSqlWithValues());
+            }
+        } else if (ThreadLocalRandom.current().nextDouble() < properties.getSampleRate()) {
+            if (log.isInfoEnabled()) {
+                log.info("sampled {}ms | {}", TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos), statementInformation.getSqlWithValues());
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package study.querydsl.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import study.querydsl.repository.MemberSearchCache;
+import study.querydsl.repository.MemberSearchQueries;
+import study.querydsl.repository.MemberSnapshotIndex;
+
+/**
+ * 검색 결과 캐시(MemberSearchCache)와 JPQL 템플릿 캐시(MemberSearchQueries)의 적중률,
+ * 회원 스냅샷(MemberSnapshotIndex)의 적중률과 메모리 사용량.
+ */
+@Component
+public class SearchCacheMetrics implements MeterBinder {
+
+    private final MemberSearchCache searchCache;
+    private final MemberSearchQueries searchQueries;
+    private final MemberSnapshotIndex snapshotIndex;
+
+    public SearchCacheMetrics(MemberSearchCache searchCache, MemberSearchQueries searchQueries,
+                              MemberSnapshotIndex snapshotIndex) {
+        this.searchCache = searchCache;
+        this.searchQueries = searchQueries;
+        this.snapshotIndex = snapshotIndex;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("member.search.cache", searchCache, MemberSearchCache::getHitCount)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("member.search.cache", searchCache, MemberSearchCache::getMissCount)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("member.search.cache.evictions", searchCache, MemberSearchCache::getEvictionCount)
+                .register(registry);
+        FunctionCounter.builder("member.search.cache.invalidations", searchCache, MemberSearchCache::getInvalidationCount)
+                .register(registry);
+        Gauge.builder("member.search.cache.size", searchCache, MemberSearchCache::size)
+                .register(registry);
+
+        FunctionCounter.builder("member.search.query.template", searchQueries, MemberSearchQueries::getHitCount)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("member.search.query.template", searchQueries, MemberSearchQueries::getMissCount)
+                .tag("result", "miss").register(registry);
+
+        if (snapshotIndex.isEnabled()) {
+            FunctionCounter.builder("member.search.snapshot", snapshotIndex, MemberSnapshotIndex::getHitCount)
+                    .tag("result", "hit").register(registry);
+            FunctionCounter.builder("member.search.snapshot", snapshotIndex, MemberSnapshotIndex::getFallbackCount)
+                    .tag("result", "fallback").register(registry);
+            Gauge.builder("member.search.snapshot.members", snapshotIndex, MemberSnapshotIndex::size)
+                    .register(registry);
+            Gauge.builder("member.search.snapshot.bytes", snapshotIndex, MemberSnapshotIndex::estimatedBytes)
+                    .baseUnit("bytes").register(registry);
+            Gauge.builder("member.search.snapshot.bytes.per.member", snapshotIndex, MemberSnapshotIndex::bytesPerMember)
+                    .baseUnit("bytes").register(registry);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package study.querydsl.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 운영용 SQL 로그 설정. 전체 statement 중 일부만 샘플링하고, 느린 statement는 항상 남긴다.
+ */
+@Getter @Setter
+@ConfigurationProperties("monitoring.sql-logging")
+public class SqlLoggingProperties {
+
+    private boolean enabled = false;
+    private double sampleRate = 0.01;
+    private Duration slowThreshold = Duration.ofMillis(200);
+}
@@ -0,0 +1,8 @@
+package study.querydsl.monitoring;
+
+public class StatementBudgetExceededException extends RuntimeException {
+
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,53 @@
+package study.querydsl.monitoring;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * HTTP 요청 하나를 statement 예산 범위 하나로 묶는다. 예산은 URL 패턴(/v1/members 등)별로 설정한다.
+ * 응답이 이미 나간 뒤이므로 FAIL 모드여도 로그만 남긴다.
+ * 비동기 핸들러(/v3/members/async 등)의 쿼리는 다른 스레드에서 실행되므로 세지 않는다.
+ */
+public class StatementBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String SCOPE = StatementBudgetInterceptor.class.getName() + ".scope";
+
+    private final NPlusOneDetector detector;
+    private final StatementBudgetProperties properties;
+
+    public StatementBudgetInterceptor(NPlusOneDetector detector, StatementBudgetProperties properties) {
+        this.detector = detector;
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = pattern != null ? pattern.toString() : request.getRequestURI();
+        request.setAttribute(SCOPE, detector.open(endpoint, properties.budgetFor(endpoint), StatementBudgetProperties.Mode.WARN));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        close(request);
+    }
+
+    /**
+     * 비동기 처리가 시작되면 이 스레드의 afterCompletion은 호출되지 않으므로 여기서 닫는다. (스레드 로컬 범위가 남지 않도록)
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        close(request);
+    }
+
+    private static void close(HttpServletRequest request) {
+        Object scope = request.getAttribute(SCOPE);
+        request.removeAttribute(SCOPE);
+        if (scope instanceof NPlusOneDetector.Scope s) {
+            s.close();
+        }
+    }
+}
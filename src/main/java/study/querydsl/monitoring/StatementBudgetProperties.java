@@ -0,0 +1,37 @@
+package study.querydsl.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 요청(또는 직접 연 범위) 하나에서 허용할 JDBC statement 수.
+ * <pre>
+ * monitoring.statement-budget:
+ *   default-budget: 20
+ *   endpoints:
+ *     "[/v1/members]": 2
+ * </pre>
+ */
+@Getter @Setter
+@ConfigurationProperties("monitoring.statement-budget")
+public class StatementBudgetProperties {
+
+    private boolean enabled = true;
+    private int defaultBudget = 20;
+    private int repeatThreshold = 3;    // 같은 모양의 SQL이 이 횟수 이상 반복되면 N+1로 본다
+    private Mode mode = Mode.WARN;
+    private Map<String, Integer> endpoints = new HashMap<>();    // URL 패턴 -> 허용 statement 수
+
+    public int budgetFor(String endpoint) {
+        return endpoints.getOrDefault(endpoint, defaultBudget);
+    }
+
+    public enum Mode {
+        WARN,   // 로그만 남긴다
+        FAIL    // 범위를 닫을 때 StatementBudgetExceededException (테스트용)
+    }
+}
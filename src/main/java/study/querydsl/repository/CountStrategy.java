@@ -0,0 +1,12 @@
+package study.querydsl.repository;
+
+/**
+ * 페이징 조회에서 total count를 구하는 방법.
+ * count 자체가 필요 없으면 {@link MemberRepositoryCustom#searchSlice}를 사용한다.
+ */
+public enum CountStrategy {
+    EXACT,              // 항상 count 쿼리 실행
+    SKIP_IF_POSSIBLE,   // content 크기로 total을 알 수 있으면 count 쿼리 생략 (PageableExecutionUtils)
+    CACHED,             // 조건별 count를 TTL 동안 재사용
+    ESTIMATED           // 조건이 없으면 테이블 통계의 추정치, 조건이 있으면 CACHED
+}
@@ -0,0 +1,16 @@
+package study.querydsl.repository;
+
+/**
+ * keyset 페이징 cursor를 해석할 수 없거나 정렬 키와 맞지 않을 때.
+ * 메시지에는 cursor 원문을 넣지 않는다. (응답으로 그대로 나갈 수 있다)
+ */
+public class InvalidCursorException extends IllegalArgumentException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,28 @@
+package study.querydsl.repository;
+
+import study.querydsl.dto.MemberSearchCondition;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 캐시 키로 쓰기 위한 불변 검색 조건.
+ * MemberSearchCondition은 변경 가능한 DTO이고, 빈 문자열은 where 절에서 null과 같게 취급되므로 정규화해서 보관한다.
+ */
+record MemberConditionKey(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+
+    static MemberConditionKey of(MemberSearchCondition condition) {
+        return new MemberConditionKey(
+                hasText(condition.getUsername()) ? condition.getUsername() : null,
+                hasText(condition.getTeamName()) ? condition.getTeamName() : null,
+                condition.getAgeGoe(),
+                condition.getAgeLoe());
+    }
+
+    boolean isEmpty() {
+        return shape() == 0;
+    }
+
+    int shape() {
+        return MemberSearchQueries.shapeOf(username, teamName, ageGoe, ageLoe);
+    }
+}
@@ -0,0 +1,58 @@
+package study.querydsl.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 검색 조건별 total count를 TTL 동안 보관한다. (CountStrategy.CACHED)
+ * TTL 안에서는 count가 최신이 아닐 수 있다.
+ */
+@Component
+class MemberCountCache {
+
+    private final Map<MemberConditionKey, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxSize;
+
+    MemberCountCache(@Value("${search.count.cache-ttl:30s}") Duration ttl,
+                     @Value("${search.count.cache-max-size:1000}") int maxSize) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+    }
+
+    long get(MemberConditionKey key, Supplier<Long> counter) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && now - entry.loadedAt < ttlNanos) {
+            return entry.count;
+        }
+        if (entries.size() >= maxSize) {
+            entries.values().removeIf(e -> now - e.loadedAt >= ttlNanos);
+            if (entries.size() >= maxSize) {
+                evictOldest();
+            }
+        }
+        long count = counter.get();
+        entries.put(key, new Entry(count, now));
+        return count;
+    }
+
+    private void evictOldest() {
+        entries.entrySet().stream()
+                .min(Comparator.comparingLong(e -> e.getValue().loadedAt))
+                .ifPresent(oldest -> entries.remove(oldest.getKey(), oldest.getValue()));
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    private record Entry(long count, long loadedAt) {
+    }
+}
@@ -2,10 +2,12 @@ package study.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Predicate;
-import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
@@ -18,6 +20,8 @@ import study.querydsl.entity.Team;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.*;
@@ -27,16 +31,42 @@ public class MemberJpaRepository {
 
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchQueries searchQueries;
+    private final MemberSearchCache searchCache;
 
-    public MemberJpaRepository(EntityManager em) {
+    private final int batchSize;
+
+    public MemberJpaRepository(EntityManager em, MemberSearchQueries searchQueries, MemberSearchCache searchCache,
+                               @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}") int batchSize) {
         this.em = em;
         this.queryFactory = new JPAQueryFactory(em);    // 생성자로 em을 등록해주었다
+        this.searchQueries = searchQueries;
+        this.searchCache = searchCache;
+        this.batchSize = batchSize;
     }
 
     public void save(Member member) {
         em.persist(member);
     }
 
+    /**
+     * JDBC batch 크기 단위로 flush/clear 하면서 저장한다.
+     * 영속성 컨텍스트를 비우므로 호출 전에 관리하던 엔티티도 준영속 상태가 된다.
+     */
+    @Transactional
+    public void saveAll(Iterable<Member> members) {
+        int count = 0;
+        for (Member member : members) {
+            em.persist(member);
+            if (++count % batchSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
     public Optional<Member> findById(Long id) {
         Member findMember = em.find(Member.class, id);
         return Optional.ofNullable(findMember);
@@ -86,7 +116,7 @@ public class MemberJpaRepository {
                         member.id,
                         member.username,
                         member.age,
-                        QTeam.team.id,
+                        member.team.id,
                         QTeam.team.name
                 ))
                 .from(member)
@@ -95,39 +125,24 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
-    public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        QTeam.team.id,
-                        QTeam.team.name
-                ))
-                .from(member)
-                .leftJoin(member.team, QTeam.team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                        )
-                .fetch();
-
-    }
-
-    private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username): null;
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {  // 조건 조합별로 미리 만들어 둔 JPQL에 값만 바인딩
+        MemberConditionKey key = MemberConditionKey.of(condition);
+        return searchCache.get(List.of("search", key), () ->
+                List.copyOf(MemberSearchQueries.toDtos(searchQueries.content(em, key).getResultList())));
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? QTeam.team.name.eq(teamName): null;
-    }
-
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
-    }
-
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    /**
+     * 결과 전체를 List로 만들지 않고 한 로우씩 action에 넘긴다. (ScrollableResults 기반 stream)
+     * 엔티티가 아니라 스칼라 값을 조회하므로 영속성 컨텍스트에 아무것도 쌓이지 않는다.
+     * action이 예외를 던지면(예: 클라이언트 연결 종료) 커서를 닫고 더 이상 읽지 않는다.
+     */
+    @Transactional(readOnly = true)
+    public void streamSearch(MemberSearchCondition condition, int fetchSize, Consumer<MemberTeamDto> action) {
+        try (Stream<Object[]> rows = searchQueries.content(em, MemberConditionKey.of(condition))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            rows.map(MemberSearchQueries::toDto).forEach(action);
+        }
     }
 }
\ No newline at end of file
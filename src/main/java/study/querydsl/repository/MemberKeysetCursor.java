@@ -0,0 +1,58 @@
+package study.querydsl.repository;
+
+import study.querydsl.dto.MemberKeysetSort;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * keyset 페이징의 continuation token.
+ * 클라이언트에게는 불투명한 문자열로만 노출하고, 정렬 키가 바뀌면 재사용할 수 없다.
+ */
+final class MemberKeysetCursor {
+
+    private final MemberKeysetSort sort;
+    private final int age;
+    private final long memberId;
+
+    private MemberKeysetCursor(MemberKeysetSort sort, int age, long memberId) {
+        this.sort = sort;
+        this.age = age;
+        this.memberId = memberId;
+    }
+
+    static MemberKeysetCursor after(MemberKeysetSort sort, MemberTeamDto last) {
+        return new MemberKeysetCursor(sort, last.getAge(), last.getMemberId());
+    }
+
+    static MemberKeysetCursor decode(String token, MemberKeysetSort sort) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor", e);
+        }
+        if (parts.length != 3 || !parts[0].equals(sort.name())) {
+            throw new InvalidCursorException("Cursor does not match sort " + sort);
+        }
+        try {
+            return new MemberKeysetCursor(sort, Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor", e);
+        }
+    }
+
+    String encode() {
+        String raw = sort.name() + ":" + age + ":" + memberId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    int getAge() {
+        return age;
+    }
+
+    long getMemberId() {
+        return memberId;
+    }
+}
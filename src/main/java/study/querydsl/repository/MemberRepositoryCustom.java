@@ -2,13 +2,23 @@ package study.querydsl.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.querydsl.dto.KeysetPage;
+import study.querydsl.dto.MemberKeysetSort;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface MemberRepositoryCustom {
     List<MemberTeamDto> search(MemberSearchCondition condition);
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+    Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable, CountStrategy countStrategy);
+    Page<MemberTeamDto> searchPageConcurrent(MemberSearchCondition condition, Pageable pageable);
+    Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable);
+    KeysetPage<MemberTeamDto> searchKeyset(MemberSearchCondition condition, MemberKeysetSort sort, String cursor, int size);
+    CompletableFuture<List<MemberTeamDto>> searchAsync(MemberSearchCondition condition);
+    CompletableFuture<Page<MemberTeamDto>> searchPageAsync(MemberSearchCondition condition, Pageable pageable, CountStrategy countStrategy);
 }
@@ -1,122 +1,175 @@
 package study.querydsl.repository;
 
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
 import org.springframework.data.support.PageableExecutionUtils;
+import study.querydsl.dto.KeysetPage;
+import study.querydsl.dto.MemberKeysetSort;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QTeam;
+import study.querydsl.repository.support.AsyncQueryExecutor;
+import study.querydsl.repository.support.ReadOnlyQueryExecutor;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
 
 public class MemberRepositoryImpl implements MemberRepositoryCustom{
 
+    private final EntityManager em;
     private final JPAQueryFactory queryFactory;
-
-    public MemberRepositoryImpl(EntityManager em){
+    private final MemberSearchQueries searchQueries;
+    private final MemberSearchCache searchCache;
+    private final MemberCountCache countCache;
+    private final ReadOnlyQueryExecutor queryExecutor;
+    private final MemberSnapshotIndex snapshotIndex;
+    private final AsyncQueryExecutor asyncExecutor;
+
+    public MemberRepositoryImpl(EntityManager em, MemberSearchQueries searchQueries, MemberSearchCache searchCache,
+                                MemberCountCache countCache, ReadOnlyQueryExecutor queryExecutor,
+                                MemberSnapshotIndex snapshotIndex, AsyncQueryExecutor asyncExecutor){
+        this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.searchQueries = searchQueries;
+        this.searchCache = searchCache;
+        this.countCache = countCache;
+        this.queryExecutor = queryExecutor;
+        this.snapshotIndex = snapshotIndex;
+        this.asyncExecutor = asyncExecutor;
     }
 
+    @Override
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        QTeam.team.id,
-                        QTeam.team.name
-                ))
-                .from(member)
-                .leftJoin(member.team, QTeam.team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+        return search(MemberConditionKey.of(condition));
+    }
+
+    private List<MemberTeamDto> search(MemberConditionKey key) {
+        Optional<List<MemberTeamDto>> fromSnapshot = snapshotIndex.search(key);    // 켜져 있고 사용 가능하면 DB 조회 없이 응답
+        if (fromSnapshot.isPresent()) {
+            return fromSnapshot.get();
+        }
+        return searchCache.get(List.of("search", key), () ->
+                List.copyOf(MemberSearchQueries.toDtos(searchQueries.content(em, key).getResultList())));
     }
 
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition cond, Pageable pageable) {    // 조회 쿼리와 카운트 쿼리를 한번에 실행
+        return searchPage(cond, pageable, CountStrategy.EXACT);
+    }
+
+    /*
+    QueryDSL 5.0.0부터는 fetchResults()와 fetchCount()를 deprecated 메서드로 공지함에 따라,
+     강의 내용처럼 searchPageSimple()과 searchPageComplex()를 구분해서 구현할 필요 없이 searchPageComplex()의 방식으로만 구현하면 됨.
+     */
+
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {  // 조회 쿼리와 카운트 쿼리를 분리
+        return searchPage(condition, pageable, CountStrategy.SKIP_IF_POSSIBLE);
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable, CountStrategy countStrategy) {
+        return searchPage(MemberConditionKey.of(condition), pageable, countStrategy);
+    }
+
+    private Page<MemberTeamDto> searchPage(MemberConditionKey key, Pageable pageable, CountStrategy countStrategy) {
+        return searchCache.get(List.of("searchPage", key, pageable, countStrategy),
+                () -> loadPage(key, pageable, countStrategy));
+    }
+
+    private Page<MemberTeamDto> loadPage(MemberConditionKey key, Pageable pageable, CountStrategy countStrategy) {
         // 데이터 조회 쿼리 (페이징 적용)
-        List<MemberTeamDto> content = queryFactory
-                .select(
-                        new QMemberTeamDto(
-                                member.id.as("memberId"),
-                                member.username,
-                                member.age,
-                                QTeam.team.id.as("teamId"),
-                                QTeam.team.name.as("teamName")
-                        )
-                )
-                .from(member)
-                .leftJoin(member.team, QTeam.team)
-                .where(
-                        usernameEq(cond.getUsername()),
-                        teamNameEq(cond.getTeamName()),
-                        ageGoe(cond.getAgeGoe()),
-                        ageLoe(cond.getAgeLoe())
-                )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+        List<MemberTeamDto> content = fetchContent(key, pageable.getOffset(), pageable.getPageSize());
 
         // count 쿼리 (조건에 부합하는 로우의 총 개수를 얻는 것이기 때문에 페이징 미적용)
-        Long total = queryFactory
-                .select(member.count()) // SQL 상으로는 count(member.id)와 동일
-                .from(member)
-                .leftJoin(member.team, QTeam.team)
-                .where(
-                        usernameEq(cond.getUsername()),
-                        teamNameEq(cond.getTeamName()),
-                        ageGoe(cond.getAgeGoe()),
-                        ageLoe(cond.getAgeLoe())
-                )
-                .fetchOne();
+        switch (countStrategy) {
+            case EXACT:
+                return new PageImpl<>(content, pageable, fetchCount(key));
+            case CACHED:
+                return PageableExecutionUtils.getPage(content, pageable,
+                        () -> countCache.get(key, () -> fetchCount(key)));
+            case ESTIMATED:
+                if (key.isEmpty()) {
+                    // 마지막 페이지 판단이 어긋나지 않도록 이미 읽은 범위보다 작게 추정하지 않는다.
+                    return PageableExecutionUtils.getPage(content, pageable,
+                            () -> Math.max(estimateMemberCount(), pageable.getOffset() + content.size()));
+                }
+                // 조건별 통계가 없으므로 조건이 있으면 캐시된 정확한 count로 대체
+                return PageableExecutionUtils.getPage(content, pageable,
+                        () -> countCache.get(key, () -> fetchCount(key)));
+            default:
+                // 첫 페이지 또는 마지막 페이지에서 content 크기만으로 total을 알 수 있으면 count 쿼리 생략
+                return PageableExecutionUtils.getPage(content, pageable, () -> fetchCount(key));
+        }
+    }
 
-        /*
-        long total = queryFactory
-                .selectFrom(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(cond.getUsername()),
-                        teamNameEq(cond.getTeamName()),
-                        ageGoe(cond.getAgeGoe()),
-                        ageLoe(cond.getAgeLoe())
-                )
-                .fetch() // 조건에 부합하는 전체 데이터를 조회 (List)
-                .size(); // List의 길이로 total을 구하기
-         */
+    @Override
+    public Page<MemberTeamDto> searchPageConcurrent(MemberSearchCondition condition, Pageable pageable) {  // count 쿼리를 별도 커넥션에서 동시에 실행
+        MemberConditionKey key = MemberConditionKey.of(condition);
+        // 쿼리 생성도 작업 스레드에서 해야 그 스레드의 트랜잭션 EntityManager를 사용한다.
+        CompletableFuture<Long> total = queryExecutor.submit(() -> fetchCount(key));
 
-        return new PageImpl<>(content, pageable, total);
+        List<MemberTeamDto> content = fetchContent(key, pageable.getOffset(), pageable.getPageSize());
 
+        return new PageImpl<>(content, pageable, ReadOnlyQueryExecutor.join(total));
     }
 
-    /*
-    QueryDSL 5.0.0부터는 fetchResults()와 fetchCount()를 deprecated 메서드로 공지함에 따라,
-     강의 내용처럼 searchPageSimple()과 searchPageComplex()를 구분해서 구현할 필요 없이 searchPageComplex()의 방식으로만 구현하면 됨.
-     */
+    // 조건은 호출 스레드에서 불변 키로 고정하고, 조회는 AsyncQueryExecutor의 (가상) 스레드에서 실행
+    @Override
+    public CompletableFuture<List<MemberTeamDto>> searchAsync(MemberSearchCondition condition) {
+        MemberConditionKey key = MemberConditionKey.of(condition);
+        return asyncExecutor.submit(() -> search(key));
+    }
 
     @Override
-    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {  // 조회 쿼리와 카운트 쿼리를 분리
-        List<MemberTeamDto> content = queryFactory
+    public CompletableFuture<Page<MemberTeamDto>> searchPageAsync(MemberSearchCondition condition, Pageable pageable, CountStrategy countStrategy) {
+        MemberConditionKey key = MemberConditionKey.of(condition);
+        return asyncExecutor.submit(() -> searchPage(key, pageable, countStrategy));
+    }
+
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {   // count 없이 한 건 더 읽어서 다음 페이지 여부만 판단
+        return searchCache.get(List.of("searchSlice", MemberConditionKey.of(condition), pageable),
+                () -> loadSlice(condition, pageable));
+    }
+
+    private Slice<MemberTeamDto> loadSlice(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> rows = fetchContent(MemberConditionKey.of(condition), pageable.getOffset(), pageable.getPageSize() + 1);
+
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<MemberTeamDto> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    public KeysetPage<MemberTeamDto> searchKeyset(MemberSearchCondition condition, MemberKeysetSort sort, String cursor, int size) {  // offset 대신 마지막 키 이후부터 조회
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        MemberKeysetCursor after = cursor != null ? MemberKeysetCursor.decode(cursor, sort) : null;
+
+        List<MemberTeamDto> rows = queryFactory
                 .select(
                         new QMemberTeamDto(
                                 member.id.as("memberId"),
                                 member.username,
                                 member.age,
-                                QTeam.team.id.as("teamId"),
+                                member.team.id.as("teamId"),  // 외래키 컬럼
                                 QTeam.team.name.as("teamName")
                         )
                 )
@@ -126,26 +179,55 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
+                        ageLoe(condition.getAgeLoe()),
+                        keysetAfter(sort, after)
                 )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
+                .orderBy(keysetOrder(sort))
+                .limit(size + 1)    // 한 건 더 읽어서 다음 페이지 존재 여부를 판단 (count 쿼리 없음)
                 .fetch();
 
-        // count 쿼리 (조건에 부합하는 로우의 총 개수를 얻는 것이기 때문에 페이징 미적용)
-        Long total = queryFactory
-                .select(member.count()) // SQL 상으로는 count(member.id)와 동일
-                .from(member)
-                .leftJoin(member.team, QTeam.team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetchOne();
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<MemberTeamDto> content = rows.subList(0, size);
+        return new KeysetPage<>(content, MemberKeysetCursor.after(sort, content.get(size - 1)).encode());
+    }
+
+    private List<MemberTeamDto> fetchContent(MemberConditionKey key, long offset, int limit) {
+        List<Object[]> rows = searchQueries.content(em, key)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+        return MemberSearchQueries.toDtos(rows);
+    }
+
+    private long fetchCount(MemberConditionKey key) {
+        return searchQueries.count(em, key).getSingleResult();  // SQL 상으로는 count(member.id)와 동일
+    }
+
+    private long estimateMemberCount() {   // H2가 관리하는 테이블 통계의 추정치 (정확한 값이 아님)
+        Number estimate = (Number) em.createNativeQuery(
+                        "select row_count_estimate from information_schema.tables where table_schema = schema() and table_name = 'MEMBER'")
+                .getSingleResult();
+        return estimate.longValue();
+    }
+
+    private BooleanExpression keysetAfter(MemberKeysetSort sort, MemberKeysetCursor after) {
+        if (after == null) {
+            return null;
+        }
+        if (sort == MemberKeysetSort.AGE) {
+            return member.age.gt(after.getAge())
+                    .or(member.age.eq(after.getAge()).and(member.id.gt(after.getMemberId())));
+        }
+        return member.id.gt(after.getMemberId());
+    }
 
-        return new PageImpl<>(content, pageable, total);
+    private OrderSpecifier<?>[] keysetOrder(MemberKeysetSort sort) {
+        if (sort == MemberKeysetSort.AGE) {
+            return new OrderSpecifier<?>[]{member.age.asc(), member.id.asc()};
+        }
+        return new OrderSpecifier<?>[]{member.id.asc()};
     }
 
     private BooleanExpression usernameEq(String username) {
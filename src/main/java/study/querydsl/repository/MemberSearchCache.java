@@ -0,0 +1,149 @@
+package study.querydsl.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 회원 검색 결과를 크기 제한이 있는 LRU로 보관한다. 조회는 락 없이 ConcurrentHashMap에서 읽고,
+ * 크기를 넘을 때만 가장 오래 사용하지 않은 항목을 찾아서 지운다. (최대 크기가 수백 개라 전체를 훑어도 싸다)
+ * Member/Team이 바뀌면 어떤 조건의 결과가 영향을 받는지 알 수 없으므로 전체를 비운다.
+ * 쓰기 트랜잭션 안에서는 아직 커밋되지 않은 변경이 있을 수 있으므로 캐시를 읽지도, 채우지도 않는다.
+ *
+ * <p>MemberTeamDto는 setter가 있으므로 저장할 때와 꺼낼 때 복사한다. 한 호출자가 바꿔도 다른 호출자의 결과는 그대로다.
+ */
+@Component
+public class MemberSearchCache {
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();    // 무효화될 때마다 증가. 이전 세대의 항목은 쓰지 않는다.
+    private final AtomicLong clock = new AtomicLong();         // LRU 순서
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public MemberSearchCache(@Value("${search.result-cache.enabled:true}") boolean enabled,
+                             @Value("${search.result-cache.max-size:500}") int maxSize) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(Object key, Supplier<T> loader) {
+        if (!enabled || hasPendingWrites()) {
+            return loader.get();
+        }
+
+        long loadGeneration = generation.get();
+        Entry cached = entries.get(key);
+        if (cached != null && cached.generation == loadGeneration) {
+            cached.lastAccess = clock.incrementAndGet();
+            hits.incrementAndGet();
+            return (T) copy(cached.value);
+        }
+
+        misses.incrementAndGet();
+        T value = loader.get();
+        if (generation.get() == loadGeneration) {   // 조회 도중 무효화된 결과는 저장하지 않는다
+            entries.put(key, new Entry(copy(value), loadGeneration, clock.incrementAndGet()));
+            if (entries.size() > maxSize) {
+                evictLeastRecentlyUsed();
+            }
+        }
+        return value;
+    }
+
+    private void evictLeastRecentlyUsed() {
+        entries.entrySet().stream()
+                .min(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                .filter(eldest -> entries.remove(eldest.getKey(), eldest.getValue()))
+                .ifPresent(eldest -> evictions.incrementAndGet());
+    }
+
+    /**
+     * 즉시 비운다. 트랜잭션 안의 변경은 MemberSearchCacheInvalidator가 커밋/롤백 이후에 한 번만 호출한다.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+        invalidations.incrementAndGet();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+
+    private static boolean hasPendingWrites() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * 검색 결과(List, Page, Slice)의 MemberTeamDto를 새 인스턴스로 바꾼 변경 불가 목록으로 복사한다.
+     */
+    private static Object copy(Object value) {
+        if (value instanceof Page<?> page) {
+            return new PageImpl<>(copyContent(page.getContent()), page.getPageable(), page.getTotalElements());
+        }
+        if (value instanceof Slice<?> slice) {
+            return new SliceImpl<>(copyContent(slice.getContent()), slice.getPageable(), slice.hasNext());
+        }
+        if (value instanceof List<?> list) {
+            return copyContent(list);
+        }
+        return value;
+    }
+
+    private static List<Object> copyContent(List<?> content) {
+        return content.stream()
+                .map(row -> row instanceof MemberTeamDto dto
+                        ? new MemberTeamDto(dto.getMemberId(), dto.getUsername(), dto.getAge(), dto.getTeamId(), dto.getTeamName())
+                        : row)
+                .toList();
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long generation;
+        private volatile long lastAccess;
+
+        private Entry(Object value, long generation, long lastAccess) {
+            this.value = value;
+            this.generation = generation;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Member/Team 엔티티 리스너. 저장, 변경(changeTeam 포함), 삭제 시 검색 결과 캐시와 count 캐시를 비우고
+ * 회원 스냅샷을 다시 만들게 한다.
+ * Spring Boot가 Hibernate에 SpringBeanContainer를 등록하므로 생성자 주입을 받을 수 있다.
+ *
+ * <p>트랜잭션 안에서는 변경이 몇 건이든 트랜잭션마다 TransactionSynchronization을 하나만 등록하고,
+ * 커밋/롤백 이후(afterCompletion)에 한 번만 비운다. (saveAll 같은 대량 저장에서 변경 건수만큼 비우지 않도록)
+ * 그 전에 다른 스레드가 이전 데이터로 캐시를 채워도 afterCompletion에서 비워진다.
+ */
+public class MemberSearchCacheInvalidator {
+
+    private final MemberSearchCache searchCache;
+    private final MemberCountCache countCache;
+    private final ObjectProvider<MemberSnapshotIndex> snapshotIndex;   // EntityManagerFactory가 필요하므로 지연 조회
+
+    public MemberSearchCacheInvalidator(MemberSearchCache searchCache, MemberCountCache countCache,
+                                        ObjectProvider<MemberSnapshotIndex> snapshotIndex) {
+        this.searchCache = searchCache;
+        this.countCache = countCache;
+        this.snapshotIndex = snapshotIndex;
+    }
+
+    @PostPersist @PostUpdate @PostRemove
+    void onChange(Object entity) {
+        invalidate();
+    }
+
+    void invalidate() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateNow();
+            return;
+        }
+        // 등록 여부는 현재 트랜잭션의 synchronization 목록으로 판단한다. (REQUIRES_NEW로 중단된 바깥 트랜잭션 것은 보이지 않는다)
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof AfterCompletionInvalidation) {
+                return;
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new AfterCompletionInvalidation());
+    }
+
+    private void invalidateNow() {
+        searchCache.invalidateAll();
+        countCache.clear();
+        snapshotIndex.ifAvailable(MemberSnapshotIndex::markDirty);
+    }
+
+    private final class AfterCompletionInvalidation implements TransactionSynchronization {
+        @Override
+        public void afterCompletion(int status) {
+            invalidateNow();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * MemberSearchCondition의 null/non-null 조합(16가지)별로 JPQL을 한 번만 만들어 두고, 호출 시에는 값만 바인딩한다.
+ * 같은 JPQL 문자열을 재사용하므로 Querydsl 직렬화가 생략되고 Hibernate 쿼리 플랜 캐시도 항상 같은 키로 조회된다.
+ * 팀명 조건이 있으면 팀이 없는 회원은 어차피 걸러지므로 inner join을 쓴다. (DB가 idx_team_name에서 시작하는 계획을 고를 수 있다)
+ * 팀 id는 member.team_id 외래키로 읽고, count 쿼리는 팀명 조건이 없으면 팀을 조인하지 않는다.
+ * (to-one left join은 row 수를 바꾸지 않는다)
+ */
+@Component
+public class MemberSearchQueries {
+
+    private static final int USERNAME = 1;
+    private static final int TEAM_NAME = 1 << 1;
+    private static final int AGE_GOE = 1 << 2;
+    private static final int AGE_LOE = 1 << 3;
+    private static final int SHAPES = 1 << 4;
+
+    private static final String CONTENT_SELECT = "select m.id, m.username, m.age, m.team.id, t.name from Member m";
+    private static final String COUNT_SELECT = "select count(m) from Member m";
+
+    private final AtomicReferenceArray<String> contentJpql = new AtomicReferenceArray<>(SHAPES);
+    private final AtomicReferenceArray<String> countJpql = new AtomicReferenceArray<>(SHAPES);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    TypedQuery<Object[]> content(EntityManager em, MemberConditionKey key) {
+        String jpql = lookup(contentJpql, CONTENT_SELECT, key.shape(), true);
+        return bind(em.createQuery(jpql, Object[].class), key);
+    }
+
+    TypedQuery<Long> count(EntityManager em, MemberConditionKey key) {
+        String jpql = lookup(countJpql, COUNT_SELECT, key.shape(), false);
+        return bind(em.createQuery(jpql, Long.class), key);
+    }
+
+    static List<MemberTeamDto> toDtos(List<Object[]> rows) {
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(toDto(row));
+        }
+        return result;
+    }
+
+    static MemberTeamDto toDto(Object[] row) {
+        return new MemberTeamDto((Long) row[0], (String) row[1], (Integer) row[2], (Long) row[3], (String) row[4]);
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private String lookup(AtomicReferenceArray<String> cache, String select, int shape, boolean projectsTeam) {
+        String jpql = cache.get(shape);
+        if (jpql != null) {
+            hits.incrementAndGet();
+            return jpql;
+        }
+        misses.incrementAndGet();
+        jpql = select + join(shape, projectsTeam) + where(shape);
+        cache.compareAndSet(shape, null, jpql);
+        return jpql;
+    }
+
+    private static String join(int shape, boolean projectsTeam) {
+        if ((shape & TEAM_NAME) != 0) {
+            return " join m.team t";
+        }
+        return projectsTeam ? " left join m.team t" : "";
+    }
+
+    private static String where(int shape) {
+        List<String> predicates = new ArrayList<>(4);
+        if ((shape & USERNAME) != 0) {
+            predicates.add("m.username = :username");
+        }
+        if ((shape & TEAM_NAME) != 0) {
+            predicates.add("t.name = :teamName");
+        }
+        if ((shape & AGE_GOE) != 0) {
+            predicates.add("m.age >= :ageGoe");
+        }
+        if ((shape & AGE_LOE) != 0) {
+            predicates.add("m.age <= :ageLoe");
+        }
+        return predicates.isEmpty() ? "" : " where " + String.join(" and ", predicates);
+    }
+
+    private static <T> TypedQuery<T> bind(TypedQuery<T> query, MemberConditionKey key) {
+        if (key.username() != null) {
+            query.setParameter("username", key.username());
+        }
+        if (key.teamName() != null) {
+            query.setParameter("teamName", key.teamName());
+        }
+        if (key.ageGoe() != null) {
+            query.setParameter("ageGoe", key.ageGoe());
+        }
+        if (key.ageLoe() != null) {
+            query.setParameter("ageLoe", key.ageLoe());
+        }
+        return query;
+    }
+
+    static int shapeOf(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+        return (username != null ? USERNAME : 0)
+                | (teamName != null ? TEAM_NAME : 0)
+                | (ageGoe != null ? AGE_GOE : 0)
+                | (ageLoe != null ? AGE_LOE : 0);
+    }
+}
@@ -0,0 +1,358 @@
+package study.querydsl.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 회원 검색(search)을 DB 왕복 없이 처리하기 위한 메모리 내 컬럼형 스냅샷. 기본값은 꺼져 있다. (search.snapshot.enabled)
+ *
+ * <p>id/나이/팀은 기본형 배열로, 회원명과 팀명은 사전(dictionary) 코드로 보관하고
+ * 팀명별, 나이 구간(10살)별 BitSet으로 후보를 좁힌 뒤 배열을 검사한다.
+ * 일정 주기(search.snapshot.refresh-interval)와 쓰기 직후에 백그라운드에서 DB로부터 다시 만든다.
+ *
+ * <p>일관성 모드 (search.snapshot.consistency)
+ * <ul>
+ *     <li>EVENTUAL: 마지막 스냅샷으로 바로 응답한다. 쓰기 이후 다시 만들어질 때까지 예전 결과가 보일 수 있다.</li>
+ *     <li>STRICT: 이 프로세스에서 스냅샷 이후에 쓰기가 있었으면 다시 만들어질 때까지 DB에서 조회한다.</li>
+ * </ul>
+ * 다른 프로세스의 쓰기는 주기적인 갱신으로만 반영된다.
+ */
+@Slf4j
+@Component
+public class MemberSnapshotIndex {
+
+    public enum Consistency {
+        EVENTUAL, STRICT
+    }
+
+    private static final int AGE_BUCKET = 10;
+
+    private final EntityManagerFactory emf;
+    private final boolean enabled;
+    private final Consistency consistency;
+    private final Duration refreshInterval;
+    private final Duration refreshAfterWriteDelay;
+
+    private final AtomicLong writeVersion = new AtomicLong();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private volatile Snapshot snapshot;
+    private ScheduledExecutorService scheduler;
+
+    public MemberSnapshotIndex(EntityManagerFactory emf,
+                               @Value("${search.snapshot.enabled:false}") boolean enabled,
+                               @Value("${search.snapshot.consistency:eventual}") Consistency consistency,
+                               @Value("${search.snapshot.refresh-interval:30s}") Duration refreshInterval,
+                               @Value("${search.snapshot.refresh-after-write-delay:200ms}") Duration refreshAfterWriteDelay) {
+        this.emf = emf;
+        this.enabled = enabled;
+        this.consistency = consistency;
+        this.refreshInterval = refreshInterval;
+        this.refreshAfterWriteDelay = refreshAfterWriteDelay;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "member-snapshot-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 스냅샷으로 응답할 수 있으면 결과를, 아니면 empty를 반환한다. (호출한 쪽이 DB에서 조회)
+     */
+    Optional<List<MemberTeamDto>> search(MemberConditionKey key) {
+        Snapshot current = snapshot;
+        if (!enabled || current == null || hasPendingWrites()
+                || (consistency == Consistency.STRICT && current.version != writeVersion.get())) {
+            if (enabled) {
+                fallbacks.incrementAndGet();
+            }
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(current.search(key));
+    }
+
+    /**
+     * Member/Team이 바뀌면 호출된다. 트랜잭션 안의 변경은 MemberSearchCacheInvalidator가 커밋/롤백 이후에 호출한다.
+     */
+    void markDirty() {
+        if (!enabled) {
+            return;
+        }
+        writeVersion.incrementAndGet();
+        // 연속된 쓰기는 한 번의 갱신으로 묶는다
+        if (refreshScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::refreshQuietly, refreshAfterWriteDelay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("member snapshot refresh failed", e);
+        }
+    }
+
+    /**
+     * DB에서 스냅샷을 다시 만든다. 시작 시점의 쓰기 버전을 기록하므로 도중에 쓰기가 있으면 STRICT 모드에서는 사용되지 않는다.
+     */
+    public void refresh() {
+        refreshScheduled.set(false);
+        long version = writeVersion.get();
+        List<Object[]> rows;
+        EntityManager em = emf.createEntityManager();
+        try {
+            rows = em.createQuery("select m.id, m.username, m.age, t.id, t.name from Member m left join m.team t order by m.id",
+                            Object[].class)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+        Snapshot built = Snapshot.build(rows, version);
+        snapshot = built;
+        log.debug("member snapshot refreshed: {} members, {} bytes", built.size(), built.estimatedBytes());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int size() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.size();
+    }
+
+    public long estimatedBytes() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.estimatedBytes();
+    }
+
+    public double bytesPerMember() {
+        Snapshot current = snapshot;
+        return current == null || current.size() == 0 ? 0 : (double) current.estimatedBytes() / current.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getFallbackCount() {
+        return fallbacks.get();
+    }
+
+    private static boolean hasPendingWrites() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * 불변 스냅샷. 행 번호(row)가 모든 배열의 인덱스다.
+     */
+    private static final class Snapshot {
+
+        final long version;
+        final long[] ids;
+        final int[] ages;
+        final int[] usernameCodes;
+        final int[] teamCodes;          // 팀이 없으면 -1
+        final String[] usernames;       // 코드 -> 회원명
+        final Map<String, Integer> usernameDictionary;
+        final long[] teamIds;           // 팀 코드 -> 팀 id
+        final String[] teamNames;       // 팀 코드 -> 팀명
+        final Map<String, BitSet> rowsByTeamName;
+        final BitSet[] rowsByAgeBucket;
+        final int minBucket;
+
+        private Snapshot(long version, long[] ids, int[] ages, int[] usernameCodes, int[] teamCodes,
+                         String[] usernames, Map<String, Integer> usernameDictionary, long[] teamIds, String[] teamNames,
+                         Map<String, BitSet> rowsByTeamName, BitSet[] rowsByAgeBucket, int minBucket) {
+            this.version = version;
+            this.ids = ids;
+            this.ages = ages;
+            this.usernameCodes = usernameCodes;
+            this.teamCodes = teamCodes;
+            this.usernames = usernames;
+            this.usernameDictionary = usernameDictionary;
+            this.teamIds = teamIds;
+            this.teamNames = teamNames;
+            this.rowsByTeamName = rowsByTeamName;
+            this.rowsByAgeBucket = rowsByAgeBucket;
+            this.minBucket = minBucket;
+        }
+
+        /**
+         * @param rows id 순으로 정렬된 (m.id, m.username, m.age, t.id, t.name)
+         */
+        static Snapshot build(List<Object[]> rows, long version) {
+            int size = rows.size();
+            long[] ids = new long[size];
+            int[] ages = new int[size];
+            int[] usernameCodes = new int[size];
+            int[] teamCodes = new int[size];
+            List<String> usernames = new ArrayList<>();
+            Map<String, Integer> usernameDictionary = new HashMap<>();
+            Map<Long, Integer> teamCodeById = new HashMap<>();
+            List<Long> teamIds = new ArrayList<>();
+            List<String> teamNames = new ArrayList<>();
+            Map<String, BitSet> rowsByTeamName = new HashMap<>();
+            int minAge = Integer.MAX_VALUE;
+            int maxAge = Integer.MIN_VALUE;
+
+            for (int row = 0; row < size; row++) {
+                Object[] r = rows.get(row);
+                ids[row] = (Long) r[0];
+                ages[row] = (Integer) r[2];
+                minAge = Math.min(minAge, ages[row]);
+                maxAge = Math.max(maxAge, ages[row]);
+                usernameCodes[row] = usernameDictionary.computeIfAbsent((String) r[1], name -> {
+                    usernames.add(name);
+                    return usernames.size() - 1;
+                });
+
+                Long teamId = (Long) r[3];
+                if (teamId == null) {
+                    teamCodes[row] = -1;
+                    continue;
+                }
+                teamCodes[row] = teamCodeById.computeIfAbsent(teamId, id -> {
+                    teamIds.add(id);
+                    teamNames.add((String) r[4]);
+                    return teamIds.size() - 1;
+                });
+                if (r[4] != null) {
+                    rowsByTeamName.computeIfAbsent((String) r[4], name -> new BitSet()).set(row);
+                }
+            }
+
+            int minBucket = size == 0 ? 0 : Math.floorDiv(minAge, AGE_BUCKET);
+            BitSet[] rowsByAgeBucket = new BitSet[size == 0 ? 0 : Math.floorDiv(maxAge, AGE_BUCKET) - minBucket + 1];
+            for (int i = 0; i < rowsByAgeBucket.length; i++) {
+                rowsByAgeBucket[i] = new BitSet();
+            }
+            for (int row = 0; row < size; row++) {
+                rowsByAgeBucket[Math.floorDiv(ages[row], AGE_BUCKET) - minBucket].set(row);
+            }
+
+            return new Snapshot(version, ids, ages, usernameCodes, teamCodes,
+                    usernames.toArray(String[]::new), usernameDictionary,
+                    teamIds.stream().mapToLong(Long::longValue).toArray(), teamNames.toArray(String[]::new),
+                    rowsByTeamName, rowsByAgeBucket, minBucket);
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        List<MemberTeamDto> search(MemberConditionKey key) {
+            BitSet candidates;
+            if (key.teamName() != null) {
+                BitSet team = rowsByTeamName.get(key.teamName());
+                if (team == null) {
+                    return List.of();
+                }
+                candidates = (BitSet) team.clone();
+            } else {
+                candidates = new BitSet(ids.length);
+                candidates.set(0, ids.length);
+            }
+
+            int goe = key.ageGoe() != null ? key.ageGoe() : Integer.MIN_VALUE;
+            int loe = key.ageLoe() != null ? key.ageLoe() : Integer.MAX_VALUE;
+            if (key.ageGoe() != null || key.ageLoe() != null) {
+                int from = Math.max(0, Math.floorDiv(goe, AGE_BUCKET) - minBucket);
+                int to = Math.min(rowsByAgeBucket.length - 1, Math.floorDiv(loe, AGE_BUCKET) - minBucket);
+                BitSet ageRows = new BitSet(ids.length);
+                for (int bucket = from; bucket <= to; bucket++) {
+                    ageRows.or(rowsByAgeBucket[bucket]);
+                }
+                candidates.and(ageRows);
+            }
+
+            int usernameCode = -1;
+            if (key.username() != null) {
+                Integer code = usernameDictionary.get(key.username());
+                if (code == null) {
+                    return List.of();
+                }
+                usernameCode = code;
+            }
+
+            List<MemberTeamDto> result = new ArrayList<>();
+            for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+                // 구간 BitSet은 경계 구간을 포함하므로 나이는 다시 검사
+                if (ages[row] < goe || ages[row] > loe || (usernameCode >= 0 && usernameCodes[row] != usernameCode)) {
+                    continue;
+                }
+                int teamCode = teamCodes[row];
+                result.add(new MemberTeamDto(ids[row], usernames[usernameCodes[row]], ages[row],
+                        teamCode < 0 ? null : teamIds[teamCode],
+                        teamCode < 0 ? null : teamNames[teamCode]));
+            }
+            return result;
+        }
+
+        /**
+         * 배열, BitSet, 사전 문자열의 대략적인 크기. (HashMap 엔트리는 엔트리당 약 48바이트로 계산)
+         */
+        long estimatedBytes() {
+            long bytes = 8L * ids.length + 4L * ages.length + 4L * usernameCodes.length + 4L * teamCodes.length
+                    + 8L * teamIds.length;
+            for (String username : usernames) {
+                bytes += stringBytes(username);
+            }
+            for (String teamName : teamNames) {
+                bytes += stringBytes(teamName);
+            }
+            bytes += 48L * (usernameDictionary.size() + rowsByTeamName.size());
+            for (BitSet bits : rowsByTeamName.values()) {
+                bytes += bits.size() / 8;
+            }
+            for (BitSet bits : rowsByAgeBucket) {
+                bytes += bits.size() / 8;
+            }
+            return bytes;
+        }
+
+        private static long stringBytes(String value) {
+            // 객체 헤더 + byte[] (한글이 있으면 UTF-16으로 글자당 2바이트)
+            return value == null ? 0 : 40L + 2L * value.length();
+        }
+    }
+}
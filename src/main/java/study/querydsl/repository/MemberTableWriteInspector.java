@@ -0,0 +1,57 @@
+package study.querydsl.repository;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.regex.Pattern;
+
+/**
+ * 엔티티 리스너를 거치지 않는 JPQL 벌크 update/delete(queryFactory.update(member)...execute() 등)나
+ * 네이티브 쿼리가 member/team 테이블을 변경하면 검색 캐시를 통째로 비운다.
+ * flush 중이 아닐 때 실행된 변경(= 엔티티 이벤트가 없는 벌크 변경)이면 팀 통계 읽기 모델도 다시 계산하게 한다.
+ */
+@Component
+public class MemberTableWriteInspector implements StatementInspector {
+
+    private static final Pattern MEMBER_OR_TEAM_WRITE = Pattern.compile(
+            "^\\s*(/\\*.*?\\*/\\s*)*(update|delete\\s+from|insert\\s+into)\\s+(member|team)\\b",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final MemberSearchCacheInvalidator invalidator;
+    private final ObjectProvider<TeamStatsReadModel> teamStats;    // EntityManagerFactory보다 먼저 만들어지므로 지연 조회
+
+    MemberTableWriteInspector(MemberSearchCache searchCache, MemberCountCache countCache,
+                              ObjectProvider<MemberSnapshotIndex> snapshotIndex,
+                              ObjectProvider<TeamStatsReadModel> teamStats) {
+        this.invalidator = new MemberSearchCacheInvalidator(searchCache, countCache, snapshotIndex);
+        this.teamStats = teamStats;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (MEMBER_OR_TEAM_WRITE.matcher(sql).find()) {
+            invalidator.invalidate();
+            if (!isFlushing()) {
+                teamStats.ifAvailable(TeamStatsReadModel::markStale);
+            }
+        }
+        return sql;
+    }
+
+    /**
+     * 엔티티의 insert/update/delete는 flush 중에 실행된다. 현재 스레드의 영속성 컨텍스트를 알 수 없으면 false.
+     */
+    private static boolean isFlushing() {
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof EntityManagerHolder holder) {
+                return holder.getEntityManager().unwrap(SessionImplementor.class)
+                        .getPersistenceContextInternal().isFlushing();
+            }
+        }
+        return false;
+    }
+}
@@ -1,25 +1,24 @@
 package study.querydsl.repository;
 
-import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.core.types.dsl.BooleanExpression;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.entity.Member;
-import study.querydsl.entity.QMember;
-import study.querydsl.entity.QTeam;
 import study.querydsl.repository.support.Querydsl4RepositorySupport;
 
 import java.util.List;
 
+import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.*;
+import static study.querydsl.entity.QTeam.team;
 
 @Repository
 public class MemberTestRepository extends Querydsl4RepositorySupport {
 
     public MemberTestRepository() {
-        super(Member.class)
+        super(Member.class);
     }
 
     public List<Member> basicSelect() {
@@ -32,30 +31,33 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
         return selectFrom(member).fetch();
     }
 
-/*    public Page<Member> searchPageByApplyPage(MemberSearchCondition condition, Pageable pageable) {
-
-        JPAQuery<Member> query = selectFrom(member)
-                .leftJoin(member.team, member.team)
+    /**
+     * count 쿼리는 applyPagination이 content 쿼리에서 만든다.
+     * (팀 이름 조건이 없으면 count 쿼리에서 team left join이 빠진다)
+     */
+    public Page<Member> searchPageByApplyPage(MemberSearchCondition condition, Pageable pageable) {
+        return applyPagination(pageable, query -> query
+                .selectFrom(member)
+                .leftJoin(member.team, team)
                 .where(usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
+                        ageLoe(condition.getAgeLoe())));
+    }
 
-        JPAQuery<Long> countQuery = queryFactory
-                .select(member.count())
-                .from(member)
-                .leftJoin(member.team, QTeam.team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
+    private BooleanExpression usernameEq(String username) {
+        return hasText(username) ? member.username.eq(username) : null;
+    }
 
+    private BooleanExpression teamNameEq(String teamName) {
+        return hasText(teamName) ? team.name.eq(teamName) : null;
+    }
 
-        List<Member> content = getQuerydsl().applyPagination(pageable, query).fetch();
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
 
-        return PageableExecutionUtils.getPage(content, pageable, query::fetchOne);
-    }*/
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
 }
@@ -0,0 +1,18 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+public interface TeamRepository extends JpaRepository<Team, Long> {
+
+    // 쿼리 캐시에는 id만 저장되고, 엔티티는 Team 2차 캐시에서 꺼낸다. team 테이블이 바뀌면 결과가 무효화된다.
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "teamByName")
+    })
+    List<Team> findByName(String name);
+}
@@ -0,0 +1,459 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.tuple.entity.EntityMetamodel;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 팀별 회원 수, 나이 합계/최소/최대를 메모리에 유지하는 읽기 모델. 조회는 O(팀 수)다.
+ *
+ * <p>커밋된 Member/Team의 저장, 삭제, 변경(changeTeam, 나이 변경)을 Hibernate post-commit 이벤트로 받아 증분 반영한다.
+ * JPA 엔티티 리스너(@PostPersist 등)는 커밋 전에 호출되어 롤백된 변경까지 반영되므로 사용하지 않는다.
+ * 엔티티를 거치지 않는 벌크 JPQL/네이티브 쿼리는 MemberTableWriteInspector가 markStale()을 호출하고,
+ * 다음 조회에서 전체를 다시 계산한다.
+ *
+ * <p>재계산은 한 번에 하나만 실행하고, 그동안 다른 조회는 마지막으로 계산된 값을 돌려준다. (처음 계산만 기다린다)
+ * 재계산 쿼리가 어떤 트랜잭션의 커밋을 봤는지는 커밋이 쿼리와 겹친 경우에만 알 수 없다. 그래서 flush 시점의 이벤트로
+ * Member/Team을 쓰는 트랜잭션과 건드린 팀을 기록하고(WriteTracker), DB 커밋 직전 시점이 재계산과 겹친
+ * 트랜잭션만 끝난 뒤 그 팀들을 다시 계산한다. 재계산이 끝난 뒤에 커밋하는 트랜잭션은 post-commit 이벤트로 반영된다.
+ */
+@Slf4j
+@Component
+public class TeamStatsReadModel implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+
+    private Map<Long, Stats> teams = new TreeMap<>();
+    private boolean built;
+    private boolean stale = true;   // 처음 조회할 때 계산
+    private long version;           // markStale()마다 증가. 전체 재계산 중에 바뀌면 stale을 유지한다
+    private final Set<Long> dirtyTeams = new HashSet<>();      // 다시 계산할 팀
+    private boolean rebuilding;
+    private final Set<WriteTx> active = new HashSet<>();       // flush했지만 끝나지 않은 트랜잭션
+    private Set<WriteTx> overlapping;                          // 재계산 중(null이 아닐 때) 커밋을 시작한 트랜잭션
+
+    public TeamStatsReadModel(EntityManagerFactory emf) {
+        this.emf = emf;
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        WriteTracker tracker = new WriteTracker();
+        registry.appendListeners(EventType.POST_INSERT, tracker);
+        registry.appendListeners(EventType.POST_UPDATE, tracker);
+        registry.appendListeners(EventType.POST_DELETE, tracker);
+    }
+
+    public List<TeamStatsDto> findAll() {
+        refresh(false);
+        synchronized (this) {
+            return teams.entrySet().stream()
+                    .map(e -> e.getValue().toDto(e.getKey()))
+                    .toList();
+        }
+    }
+
+    /**
+     * 벌크 변경은 커밋 전에 감지되므로 트랜잭션이 끝난 뒤에도 한 번 더 표시한다. (커밋 전 값으로 다시 계산하는 것 방지)
+     */
+    public void markStale() {
+        doMarkStale();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    doMarkStale();
+                }
+            });
+        }
+    }
+
+    private synchronized void doMarkStale() {
+        stale = true;
+        version++;
+    }
+
+    synchronized boolean needsRefresh() {
+        return stale || !dirtyTeams.isEmpty();
+    }
+
+    void rebuild() {
+        refresh(true);
+    }
+
+    /**
+     * stale이면 전체를, 아니면 dirtyTeams만 다시 계산한다. 다른 스레드가 계산 중이면 기다리지 않고 돌아간다.
+     */
+    private void refresh(boolean full) {
+        long startVersion;
+        Set<Long> only;
+        synchronized (this) {
+            while (rebuilding && !built) {
+                waitForBuild();
+            }
+            if (rebuilding || !(full || needsRefresh())) {
+                return;
+            }
+            full |= stale;
+            only = full ? null : new HashSet<>(dirtyTeams);
+            dirtyTeams.clear();
+            startVersion = version;
+            rebuilding = true;
+            overlapping = new HashSet<>();
+            for (WriteTx tx : active) {
+                if (tx.committing) {
+                    overlapping.add(tx);
+                }
+            }
+        }
+
+        Map<Long, Stats> rebuilt = null;
+        try {
+            rebuilt = query(only);
+        } finally {
+            synchronized (this) {
+                if (rebuilt != null) {
+                    swap(rebuilt, only, startVersion);
+                } else if (only != null) {
+                    dirtyTeams.addAll(only);    // 실패하면 다음 조회에서 다시
+                }
+                overlapping = null;
+                rebuilding = false;
+                notifyAll();
+            }
+        }
+        log.debug("team stats rebuilt: {} teams{}", rebuilt.size(), only == null ? "" : " (partial)");
+    }
+
+    private void swap(Map<Long, Stats> rebuilt, Set<Long> only, long startVersion) {
+        if (only == null) {
+            teams = rebuilt;
+            built = true;
+            stale = version != startVersion;
+        } else {
+            for (Long teamId : only) {
+                Stats stats = rebuilt.get(teamId);
+                if (stats == null) {
+                    teams.remove(teamId);
+                } else {
+                    teams.put(teamId, stats);
+                }
+            }
+        }
+        for (WriteTx tx : overlapping) {
+            Set<Long> recheck = new HashSet<>(tx.teams);
+            if (only != null) {
+                recheck.retainAll(only);
+            }
+            if (tx.done) {
+                dirtyTeams.addAll(recheck);
+            } else {
+                tx.recheck.addAll(recheck); // post-commit 이벤트가 반영된 뒤(afterCompletion) 다시 계산
+            }
+        }
+    }
+
+    private void waitForBuild() {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for team stats", e);
+        }
+    }
+
+    private Map<Long, Stats> query(Set<Long> only) {
+        Map<Long, Stats> rebuilt = new TreeMap<>();
+        EntityManager em = emf.createEntityManager();
+        try {
+            JPAQueryFactory queryFactory = new JPAQueryFactory(em);
+            for (Tuple row : queryFactory.select(team.id, team.name).from(team)
+                    .where(only == null ? null : team.id.in(only))
+                    .fetch()) {
+                rebuilt.put(row.get(team.id), new Stats(row.get(team.name)));
+            }
+            List<Tuple> ageCounts = queryFactory
+                    .select(member.team.id, member.age, member.count())
+                    .from(member)
+                    .where(only == null ? member.team.isNotNull() : member.team.id.in(only))
+                    .groupBy(member.team.id, member.age)
+                    .fetch();
+            for (Tuple row : ageCounts) {
+                Stats stats = rebuilt.get(row.get(member.team.id));
+                if (stats != null) {
+                    stats.add(row.get(member.age), row.get(member.count()));
+                }
+            }
+        } finally {
+            em.close();
+        }
+        return rebuilt;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Team) {
+            String name = (String) event.getState()[index(event.getPersister(), "name")];
+            synchronized (this) {
+                teams.put((Long) event.getId(), new Stats(name));
+            }
+        } else if (event.getEntity() instanceof Member) {
+            Object[] state = event.getState();
+            EntityPersister persister = event.getPersister();
+            apply(teamId(state[index(persister, "team")]), (Integer) state[index(persister, "age")], 1);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        EntityPersister persister = event.getPersister();
+        if (event.getEntity() instanceof Team) {
+            String name = (String) event.getState()[index(persister, "name")];
+            synchronized (this) {
+                Stats stats = teams.get((Long) event.getId());
+                if (stats != null) {
+                    stats.name = name;
+                }
+            }
+        } else if (event.getEntity() instanceof Member) {
+            Object[] oldState = event.getOldState();
+            if (oldState == null) {     // merge() 등으로 이전 값을 모르는 경우
+                doMarkStale();
+                return;
+            }
+            Object[] state = event.getState();
+            int teamIndex = index(persister, "team");
+            int ageIndex = index(persister, "age");
+            synchronized (this) {
+                apply(teamId(oldState[teamIndex]), (Integer) oldState[ageIndex], -1);
+                apply(teamId(state[teamIndex]), (Integer) state[ageIndex], 1);
+            }
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Team) {
+            synchronized (this) {
+                teams.remove((Long) event.getId());
+            }
+        } else if (event.getEntity() instanceof Member) {
+            Object[] state = event.getDeletedState();
+            EntityPersister persister = event.getPersister();
+            apply(teamId(state[index(persister, "team")]), (Integer) state[index(persister, "age")], -1);
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> type = persister.getMappedClass();
+        return type == Member.class || type == Team.class;
+    }
+
+    private synchronized void apply(Long teamId, int age, int delta) {
+        if (teamId == null) {
+            return;
+        }
+        Stats stats = teams.get(teamId);
+        if (stats == null) {    // 모르는 팀 (계산 이후에 생긴 팀의 이벤트 순서가 어긋난 경우)
+            dirtyTeams.add(teamId);
+            return;
+        }
+        stats.add(age, delta);
+    }
+
+    private void trackWrite(List<Long> teamIds, EventSource session) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Spring 트랜잭션 밖: 이 콜백은 post-commit 이벤트보다 먼저 호출될 수 있으므로 다음 조회에서 전체를 다시 계산하게 한다
+            session.getActionQueue().registerProcess((success, s) -> doMarkStale());
+            return;
+        }
+        WriteTx tx = null;
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof WriteTx current) {
+                tx = current;   // 트랜잭션마다 하나
+            }
+        }
+        synchronized (this) {
+            if (tx == null) {
+                tx = new WriteTx();
+                active.add(tx);
+                TransactionSynchronizationManager.registerSynchronization(tx);
+                // 커밋할 때의 flush 뒤, DB 커밋 직전에 호출된다 (Spring의 beforeCommit은 커밋 시점 flush보다 먼저라서 쓰지 않는다)
+                session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) tx::committing);
+            }
+            for (Long teamId : teamIds) {
+                if (teamId != null) {
+                    tx.teams.add(teamId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Member/Team을 쓰는 Spring 트랜잭션. afterCompletion은 JPA 커밋(= Hibernate post-commit 이벤트) 뒤에 호출된다.
+     * 필드는 TeamStatsReadModel의 락으로 보호한다.
+     */
+    private final class WriteTx implements TransactionSynchronization {
+
+        private final Set<Long> teams = new HashSet<>();
+        private final Set<Long> recheck = new HashSet<>();
+        private boolean committing;
+        private boolean done;
+
+        void committing(SessionImplementor session) {
+            synchronized (TeamStatsReadModel.this) {
+                committing = true;
+                if (overlapping != null) {
+                    overlapping.add(this);
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            synchronized (TeamStatsReadModel.this) {
+                done = true;
+                active.remove(this);
+                if (status == STATUS_COMMITTED) {
+                    dirtyTeams.addAll(recheck);
+                }
+            }
+        }
+    }
+
+    /**
+     * flush 시점(커밋 전)의 이벤트. 롤백돼도 호출되므로 통계에는 반영하지 않고 진행 중인 쓰기와 건드린 팀만 기록한다.
+     */
+    private final class WriteTracker implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            track(event.getEntity(), event.getId(), event.getPersister(), event.getState(), null, event.getSession());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            track(event.getEntity(), event.getId(), event.getPersister(), event.getState(), event.getOldState(), event.getSession());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            track(event.getEntity(), event.getId(), event.getPersister(), event.getDeletedState(), null, event.getSession());
+        }
+
+        private void track(Object entity, Object id, EntityPersister persister, Object[] state, Object[] oldState,
+                           EventSource session) {
+            List<Long> teamIds = new ArrayList<>(2);
+            if (entity instanceof Team) {
+                teamIds.add((Long) id);
+            } else if (entity instanceof Member) {
+                int teamIndex = index(persister, "team");
+                teamIds.add(teamId(state[teamIndex]));
+                if (oldState != null) {
+                    teamIds.add(teamId(oldState[teamIndex]));
+                }
+            } else {
+                return;
+            }
+            trackWrite(teamIds, session);
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return false;
+        }
+    }
+
+    private static int index(EntityPersister persister, String property) {
+        EntityMetamodel metamodel = persister.getEntityMetamodel();
+        return metamodel.getPropertyIndex(property);
+    }
+
+    private static Long teamId(Object team) {
+        if (team == null) {
+            return null;
+        }
+        if (team instanceof HibernateProxy proxy) {
+            return (Long) proxy.getHibernateLazyInitializer().getIdentifier();  // 프록시를 초기화하지 않는다
+        }
+        return ((Team) team).getId();
+    }
+
+    private static final class Stats {
+
+        private String name;
+        private long count;
+        private long sum;
+        private final TreeMap<Integer, Long> ages = new TreeMap<>();  // 나이별 회원 수 (삭제가 있어도 min/max 유지)
+
+        Stats(String name) {
+            this.name = name;
+        }
+
+        void add(int age, long delta) {
+            count += delta;
+            sum += age * delta;
+            ages.merge(age, delta, Long::sum);
+            if (ages.get(age) <= 0) {
+                ages.remove(age);
+            }
+        }
+
+        TeamStatsDto toDto(Long teamId) {
+            return new TeamStatsDto(teamId, name, count, sum,
+                    ages.isEmpty() ? null : ages.firstKey(),
+                    ages.isEmpty() ? null : ages.lastKey());
+        }
+    }
+}
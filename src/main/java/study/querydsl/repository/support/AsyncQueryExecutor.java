@@ -0,0 +1,93 @@
+package study.querydsl.repository.support;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * 비동기 리포지토리 API(searchPageAsync 등)의 실행기. 쿼리를 읽기 전용 트랜잭션에서 실행하고 CompletableFuture로 돌려준다.
+ *
+ * <p>search.async.virtual-threads=true이고 Java 21 이상이면 작업마다 가상 스레드를 사용한다.
+ * (Java 17로 컴파일하므로 Executors.newVirtualThreadPerTaskExecutor는 리플렉션으로 찾는다)
+ * 아니면 허가 수 크기의 플랫폼 스레드 풀을 사용한다.
+ *
+ * <p>가상 스레드는 얼마든지 만들 수 있으므로, 동시에 커넥션을 잡는 작업 수를 ReadOnlyQueryExecutor와 함께 쓰는
+ * ConnectionPermits로 제한한다. (기본값은 풀의 절반이라 요청 스레드가 쓸 커넥션이 남는다)
+ * 초과한 작업은 Hikari의 connectionTimeout까지 기다리다 실패하는 대신 허가를 (가상 스레드라면 거의 비용 없이) 기다린다.
+ */
+@Slf4j
+@Component
+public class AsyncQueryExecutor {
+
+    private final PlatformTransactionManager transactionManager;
+    private final ConnectionPermits permits;
+    private final TaskDecorator taskDecorator;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    public AsyncQueryExecutor(PlatformTransactionManager transactionManager, ConnectionPermits permits,
+                              ObjectProvider<TaskDecorator> taskDecorator,
+                              @Value("${search.async.virtual-threads:false}") boolean virtualThreads) {
+        this.transactionManager = transactionManager;
+        this.permits = permits;
+        this.taskDecorator = taskDecorator.getIfUnique(() -> task -> task);
+        ExecutorService virtual = virtualThreads ? newVirtualThreadPerTaskExecutor() : null;
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual
+                : Executors.newFixedThreadPool(permits.getTotal(), ReadOnlyTransactions.daemonThreads("async-query-"));
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> query) {
+        // 호출한 쪽의 커밋되지 않은 변경은 다른 스레드에서 보이지 않으므로 그대로 실행 (ReadOnlyQueryExecutor와 같음)
+        if (ReadOnlyTransactions.mustRunInline()) {
+            return CompletableFuture.completedFuture(query.get());
+        }
+
+        TransactionTemplate template = ReadOnlyTransactions.readOnlyRequiresNew(transactionManager);
+        Supplier<T> task = ReadOnlyTransactions.decorate(taskDecorator, () -> template.execute(status -> query.get()));
+        return CompletableFuture.supplyAsync(() -> {
+            permits.acquire();
+            try {
+                return task.get();
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * 커넥션 허가를 기다리는 작업 수
+     */
+    public int getQueuedCount() {
+        return permits.getQueueLength();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("search.async.virtual-threads=true but virtual threads are not available on Java {}; using a platform thread pool",
+                    Runtime.version().feature());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.SimpleExpression;
+import com.querydsl.jpa.impl.JPADeleteClause;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.CollectionType;
+import org.hibernate.type.Type;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 벌크 update/delete는 영속성 컨텍스트를 거치지 않으므로 실행 후에 이미 로딩된 엔티티가 DB와 달라진다.
+ * em.flush(); em.clear() 대신 실행 전에 flush하고, 실행 후에는 영향받은 타입(또는 id)의 엔티티만 준영속으로 만든다.
+ * 다음 조회에서 DB의 값을 다시 읽어온다.
+ *
+ * <pre>
+ * bulkOperations.update(member, update -> update.set(member.age, member.age.add(1)), member.age.lt(28));
+ * bulkOperations.deleteByIds(member, member.id, List.of(1L, 2L));
+ * </pre>
+ */
+@Component
+public class BulkOperations {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+
+    public BulkOperations(EntityManager em) {
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+    }
+
+    /**
+     * 조건에 맞는 엔티티를 한 번의 update 쿼리로 변경한다.
+     * 어떤 row가 바뀌었는지 알 수 없으므로 같은 타입의 엔티티를 모두 준영속으로 만든다.
+     */
+    @Transactional
+    public long update(EntityPath<?> entity, Consumer<JPAUpdateClause> set, Predicate... where) {
+        em.flush();
+        JPAUpdateClause clause = queryFactory.update(entity).where(where);
+        set.accept(clause);
+        long count = clause.execute();
+        detach(entity.getType(), null);
+        return count;
+    }
+
+    /**
+     * id 목록에 해당하는 엔티티만 변경하고, 그 id의 엔티티만 준영속으로 만든다.
+     */
+    @Transactional
+    public <ID> long updateByIds(EntityPath<?> entity, SimpleExpression<ID> idPath, Collection<ID> ids,
+                                 Consumer<JPAUpdateClause> set) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        em.flush();
+        JPAUpdateClause clause = queryFactory.update(entity).where(idPath.in(ids));
+        set.accept(clause);
+        long count = clause.execute();
+        detach(entity.getType(), new HashSet<>(ids));
+        return count;
+    }
+
+    /**
+     * 조건에 맞는 엔티티를 한 번의 delete 쿼리로 삭제한다.
+     */
+    @Transactional
+    public long delete(EntityPath<?> entity, Predicate... where) {
+        em.flush();
+        JPADeleteClause clause = queryFactory.delete(entity).where(where);
+        long count = clause.execute();
+        detach(entity.getType(), null);
+        return count;
+    }
+
+    @Transactional
+    public <ID> long deleteByIds(EntityPath<?> entity, SimpleExpression<ID> idPath, Collection<ID> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        em.flush();
+        long count = queryFactory.delete(entity).where(idPath.in(ids)).execute();
+        detach(entity.getType(), new HashSet<>(ids));
+        return count;
+    }
+
+    /**
+     * 대상 엔티티와 함께, 대상을 이미 로딩된 상태로 참조하는 엔티티(초기화된 Team.members, 초기화된 Member.team)도 준영속으로 만든다.
+     * 그대로 두면 그 참조를 통해 예전 값이 보인다.
+     *
+     * @param ids null이면 타입에 해당하는 엔티티 전체
+     */
+    private void detach(Class<?> type, Set<?> ids) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        List<Object> targets = new ArrayList<>();
+        // 순회 중에 detach하면 안 되므로 대상을 먼저 모은다
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            Object instance = entry.getKey();
+            EntityEntry entityEntry = entry.getValue();
+            if (type.isInstance(instance)) {
+                if (ids == null || ids.contains(entityEntry.getId())) {
+                    targets.add(instance);
+                }
+            } else if (referencesLoaded(entityEntry.getPersister(), instance, type)) {
+                targets.add(instance);
+            }
+        }
+        targets.forEach(em::detach);
+    }
+
+    private boolean referencesLoaded(EntityPersister persister, Object instance, Class<?> type) {
+        Type[] propertyTypes = persister.getPropertyTypes();
+        for (int i = 0; i < propertyTypes.length; i++) {
+            Type propertyType = propertyTypes[i];
+            Class<?> target = propertyType instanceof CollectionType collectionType
+                    ? collectionType.getElementType(persister.getFactory()).getReturnedClass()
+                    : propertyType.isEntityType() ? propertyType.getReturnedClass() : null;
+            if (target == null || !(type.isAssignableFrom(target) || target.isAssignableFrom(type))) {
+                continue;
+            }
+            Object value = persister.getValue(instance, i);
+            if (value != null && Hibernate.isInitialized(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,321 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.BulkJobChunk;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static study.querydsl.entity.QBulkJobChunk.bulkJobChunk;
+
+/**
+ * 큰 벌크 update/delete를 id 범위 청크로 나눠서 청크마다 짧은 트랜잭션으로 실행한다.
+ * 락을 잡는 시간과 한 번에 쌓이는 undo/복제 지연이 청크 크기로 제한된다.
+ *
+ * <p>청크 경계는 id를 chunkSize 배수로 나눈 고정 범위라서 다시 실행해도 같다. 다음 청크는 진행하면서
+ * 남은 대상 행의 가장 작은 id로 정하므로 대상 행이 없는 범위는 건너뛴다.
+ * 청크가 끝나면 같은 트랜잭션에서 BulkJobChunk를 저장하므로, 중간에 죽은 작업을 같은 jobName으로
+ * 다시 실행하면 끝난 청크는 건너뛴다. (age = age + 1 같은 변경도 두 번 적용되지 않는다)
+ * 기록과 chunkSize, 조건이나 set 절이 다르면 이어서 실행하지 않는다. (reset 후 다시 실행)
+ *
+ * <p>청크마다 커밋되므로 전체가 하나의 트랜잭션처럼 롤백되지 않는다. 호출한 쪽의 트랜잭션 안에서는 실행할 수 없다.
+ */
+@Slf4j
+@Component
+public class ChunkedBulkRunner {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate chunkTx;
+    private final Options defaults;
+
+    public ChunkedBulkRunner(EntityManager em, PlatformTransactionManager transactionManager,
+                             @Value("${bulk.chunk-size:1000}") int chunkSize,
+                             @Value("${bulk.parallelism:1}") int parallelism,
+                             @Value("${bulk.throttle:0ms}") Duration throttle) {
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.defaults = new Options(chunkSize, parallelism, throttle);
+    }
+
+    /**
+     * @param chunkSize   청크 하나가 맡는 id 범위의 크기
+     * @param parallelism 동시에 실행할 청크 수 (커넥션을 그만큼 사용한다)
+     * @param throttle    워커가 청크 하나를 끝낸 뒤 쉬는 시간 (마지막 청크 뒤에는 쉬지 않는다)
+     */
+    public record Options(int chunkSize, int parallelism, Duration throttle) {
+
+        public Options {
+            if (chunkSize < 1 || parallelism < 1) {
+                throw new IllegalArgumentException("chunkSize and parallelism must be positive");
+            }
+        }
+
+        public Options withChunkSize(int chunkSize) {
+            return new Options(chunkSize, parallelism, throttle);
+        }
+
+        public Options withParallelism(int parallelism) {
+            return new Options(chunkSize, parallelism, throttle);
+        }
+
+        public Options withThrottle(Duration throttle) {
+            return new Options(chunkSize, parallelism, throttle);
+        }
+    }
+
+    public record Result(int chunks, int skippedChunks, long affectedRows) {
+    }
+
+    public Options defaults() {
+        return defaults;
+    }
+
+    /**
+     * chunkedBulkRunner.update("member-age-bump", member, member.id,
+     *         update -> update.set(member.age, member.age.add(1)), member.age.lt(28), runner.defaults());
+     */
+    public Result update(String jobName, EntityPath<?> entity, NumberPath<Long> idPath,
+                         Consumer<JPAUpdateClause> set, Predicate where, Options options) {
+        SetClauseRecorder recorder = new SetClauseRecorder(em, entity);
+        set.accept(recorder);   // 실행하지 않고 set 절만 기록해서 지문에 넣는다
+        return run(jobName, "update " + recorder.sets, entity, idPath, where, options, range -> {
+            JPAUpdateClause clause = queryFactory.update(entity).where(where, range);
+            set.accept(clause);
+            return clause.execute();
+        });
+    }
+
+    public Result delete(String jobName, EntityPath<?> entity, NumberPath<Long> idPath,
+                         Predicate where, Options options) {
+        return run(jobName, "delete", entity, idPath, where, options,
+                range -> queryFactory.delete(entity).where(where, range).execute());
+    }
+
+    /**
+     * 진행 기록을 지운다. 같은 jobName으로 처음부터 다시 실행할 때 사용한다.
+     */
+    public long reset(String jobName) {
+        Long deleted = chunkTx.execute(status -> queryFactory.delete(bulkJobChunk)
+                .where(bulkJobChunk.jobName.eq(jobName))
+                .execute());
+        return deleted == null ? 0 : deleted;
+    }
+
+    private Result run(String jobName, String kind, EntityPath<?> entity, NumberPath<Long> idPath, Predicate where,
+                       Options options, Function<Predicate, Long> chunkStatement) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Chunked bulk operations commit per chunk and must not run inside a transaction");
+        }
+
+        long chunkSize = options.chunkSize();
+        String fingerprint = fingerprint(kind, entity, where);
+        Set<Long> completed = completedChunks(jobName, chunkSize, fingerprint);
+        if (!completed.isEmpty()) {
+            log.info("bulk job {}: resuming, {} chunks already done", jobName, completed.size());
+        }
+
+        ChunkCursor cursor = new ChunkCursor(entity, idPath, where, chunkSize, completed);
+        AtomicLong affected = new AtomicLong();
+        AtomicInteger done = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+        Runnable worker = () -> {
+            boolean first = true;
+            Long start;
+            while (!failed.get() && (start = cursor.next()) != null) {
+                if (!first) {
+                    sleep(options.throttle());  // 청크 사이에만 쉰다
+                }
+                first = false;
+                long chunkStart = start;
+                try {
+                    Long rows = chunkTx.execute(status -> {
+                        long count = chunkStatement.apply(idPath.goe(chunkStart).and(idPath.lt(chunkStart + chunkSize)));
+                        em.persist(new BulkJobChunk(jobName, chunkStart, chunkSize, fingerprint, count));
+                        return count;
+                    });
+                    affected.addAndGet(rows == null ? 0 : rows);
+                    int finished = done.incrementAndGet();
+                    if (finished % 100 == 0) {
+                        log.info("bulk job {}: {} chunks", jobName, finished);
+                    }
+                } catch (RuntimeException e) {
+                    failed.set(true);
+                    throw e;
+                }
+            }
+        };
+
+        if (options.parallelism() == 1) {
+            worker.run();
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(options.parallelism());
+            try {
+                CompletableFuture<?>[] futures = new CompletableFuture<?>[options.parallelism()];
+                for (int i = 0; i < futures.length; i++) {
+                    futures[i] = CompletableFuture.runAsync(worker, executor);
+                }
+                ReadOnlyQueryExecutor.join(CompletableFuture.allOf(futures));
+            } finally {
+                executor.shutdown();
+            }
+        }
+        return new Result(completed.size() + done.get(), completed.size(), affected.get());
+    }
+
+    /**
+     * 실행할 다음 청크를 진행하면서 정한다. 워커들이 나눠 가지므로 next()는 한 번에 하나만 실행한다.
+     * 한 번 조회로 다음 대상 행이 있는 청크까지 건너뛰고, 이미 끝난 청크는 다시 조회해서 넘어간다.
+     */
+    private final class ChunkCursor {
+
+        private final EntityPath<?> entity;
+        private final NumberPath<Long> idPath;
+        private final Predicate where;
+        private final long chunkSize;
+        private final Set<Long> completed;
+        private long from = Long.MIN_VALUE;
+        private boolean exhausted;
+
+        private ChunkCursor(EntityPath<?> entity, NumberPath<Long> idPath, Predicate where, long chunkSize, Set<Long> completed) {
+            this.entity = entity;
+            this.idPath = idPath;
+            this.where = where;
+            this.chunkSize = chunkSize;
+            this.completed = completed;
+        }
+
+        synchronized Long next() {
+            while (!exhausted) {
+                Long id = firstIdFrom(entity, idPath, where, from);
+                if (id == null) {
+                    exhausted = true;
+                    break;
+                }
+                long start = Math.floorDiv(id, chunkSize) * chunkSize;
+                from = start + chunkSize;
+                if (!completed.contains(start)) {
+                    return start;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 실행하지 않고 set 절(경로 = 값)만 기록한다. 값의 toString()은 상수까지 포함한다.
+     */
+    private static final class SetClauseRecorder extends JPAUpdateClause {
+
+        private final List<String> sets = new ArrayList<>();
+
+        private SetClauseRecorder(EntityManager em, EntityPath<?> entity) {
+            super(em, entity);
+        }
+
+        @Override
+        public <T> JPAUpdateClause set(Path<T> path, T value) {
+            sets.add(path + " = " + value);
+            return super.set(path, value);
+        }
+
+        @Override
+        public <T> JPAUpdateClause set(Path<T> path, Expression<? extends T> expression) {
+            sets.add(path + " = " + expression);
+            return super.set(path, expression);
+        }
+
+        @Override
+        public <T> JPAUpdateClause setNull(Path<T> path) {
+            sets.add(path + " = null");
+            return super.setNull(path);
+        }
+
+        @Override
+        public JPAUpdateClause set(List<? extends Path<?>> paths, List<?> values) {
+            sets.add(paths + " = " + values);
+            return super.set(paths, values);
+        }
+    }
+
+    /**
+     * from 이상인 대상 행의 가장 작은 id. 없으면 null
+     */
+    private Long firstIdFrom(EntityPath<?> entity, NumberPath<Long> idPath, Predicate where, long from) {
+        return chunkTx.execute(status -> queryFactory
+                .select(idPath.min())
+                .from(entity)
+                .where(where, idPath.goe(from))
+                .fetchOne());
+    }
+
+    private Set<Long> completedChunks(String jobName, long chunkSize, String fingerprint) {
+        List<BulkJobChunk> chunks = chunkTx.execute(status -> queryFactory
+                .selectFrom(bulkJobChunk)
+                .where(bulkJobChunk.jobName.eq(jobName))
+                .fetch());
+        if (chunks == null) {
+            return Set.of();
+        }
+        for (BulkJobChunk chunk : chunks) {
+            if (chunk.getChunkSize() != chunkSize || !chunk.getFingerprint().equals(fingerprint)) {
+                throw new IllegalStateException("Bulk job " + jobName + " was started with chunkSize " + chunk.getChunkSize()
+                        + " or another statement (set clause or predicate); resume it with the same options or reset it first");
+            }
+        }
+        return chunks.stream().map(BulkJobChunk::getChunkStart).collect(Collectors.toSet());
+    }
+
+    static String fingerprint(String kind, EntityPath<?> entity, Predicate where) {
+        String source = kind + " " + entity + " where " + where;    // Expression.toString()은 상수 값까지 포함한다
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(Duration throttle) {
+        if (throttle.isZero() || throttle.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(throttle.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while throttling bulk job", e);
+        }
+    }
+}
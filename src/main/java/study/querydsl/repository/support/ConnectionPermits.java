@@ -0,0 +1,80 @@
+package study.querydsl.repository.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 별도 스레드에서 커넥션을 추가로 빌리는 조회(ReadOnlyQueryExecutor의 count, AsyncQueryExecutor)가 함께 쓰는 허가 수.
+ * 요청 스레드(OSIV, 동기 핸들러)도 커넥션을 잡고 있으므로 기본값은 커넥션 풀의 절반으로 해서 풀에 여유를 남긴다.
+ * (search.connection-permits로 지정 가능)
+ */
+@Component
+public class ConnectionPermits {
+
+    private final Semaphore permits;
+    private final int total;
+    private final HikariDataSource hikari;
+
+    public ConnectionPermits(DataSource dataSource,
+                             @Value("${search.connection-permits:0}") int configured,
+                             @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        this.total = configured > 0 ? configured : Math.max(1, poolSize / 2);
+        this.permits = new Semaphore(total, true);
+        this.hikari = unwrapHikari(dataSource);
+    }
+
+    /**
+     * 허가가 있고 풀에 쉬고 있는 커넥션이 있을 때만 허가를 얻는다. 실패하면 호출한 쪽이 자기 커넥션으로 처리한다.
+     */
+    public boolean tryAcquire() {
+        if (!permits.tryAcquire()) {
+            return false;
+        }
+        if (!hasIdleConnection()) {
+            permits.release();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 허가가 날 때까지 기다린다. (요청 스레드가 아니라 작업 스레드에서만 호출)
+     */
+    public void acquire() {
+        permits.acquireUninterruptibly();
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    private boolean hasIdleConnection() {
+        if (hikari == null) {
+            return true;
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();   // 첫 커넥션 전에는 null
+        return pool == null || pool.getIdleConnections() > 0;
+    }
+
+    private static HikariDataSource unwrapHikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Visitor;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Projections.bean/fields 대용. 로우마다 리플렉션으로 setter/필드를 호출하는 대신
+ * 클래스·프로퍼티별로 한 번만 LambdaMetafactory(setter, 기본 생성자) 또는 MethodHandle(필드)을 만들어 재사용한다.
+ * 별칭(member.username.as("name"), ExpressionUtils.as(subQuery, "age"))도 Projections와 같은 방식으로 처리한다.
+ * 캐시는 ClassValue에 두어 DTO 클래스와 함께 수거된다. (devtools 재시작 시 이전 클래스로더를 붙잡지 않는다)
+ */
+public final class DtoProjections {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final ClassValue<Supplier<Object>> CONSTRUCTORS = new ClassValue<>() {
+        @Override
+        protected Supplier<Object> computeValue(Class<?> type) {
+            return lambdaConstructor(type);
+        }
+    };
+    private static final ClassValue<ConcurrentMap<String, BiConsumer<Object, Object>>> SETTERS = writerCache();
+    private static final ClassValue<ConcurrentMap<String, BiConsumer<Object, Object>>> FIELDS = writerCache();
+
+    private DtoProjections() {
+    }
+
+    /**
+     * public 기본 생성자와 public setter를 사용한다.
+     */
+    public static <T> FactoryExpression<T> bean(Class<T> type, Expression<?>... exprs) {
+        return new DtoExpression<>(type, true, exprs);
+    }
+
+    /**
+     * 필드에 직접 값을 넣는다. (private 필드 가능)
+     */
+    public static <T> FactoryExpression<T> fields(Class<T> type, Expression<?>... exprs) {
+        return new DtoExpression<>(type, false, exprs);
+    }
+
+    static String propertyName(Expression<?> expr) {
+        if (expr instanceof Path<?> path) {
+            return path.getMetadata().getName();
+        }
+        if (expr instanceof Operation<?> operation && operation.getOperator() == Ops.ALIAS) {
+            return ((Path<?>) operation.getArg(1)).getMetadata().getName();
+        }
+        throw new IllegalArgumentException("Unsupported expression " + expr + ", use an alias");
+    }
+
+    private static ClassValue<ConcurrentMap<String, BiConsumer<Object, Object>>> writerCache() {
+        return new ClassValue<>() {
+            @Override
+            protected ConcurrentMap<String, BiConsumer<Object, Object>> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+    }
+
+    private static Supplier<Object> constructor(Class<?> type) {
+        return CONSTRUCTORS.get(type);
+    }
+
+    private static BiConsumer<Object, Object> writer(Class<?> type, String property, boolean useSetter) {
+        return useSetter
+                ? SETTERS.get(type).computeIfAbsent(property, p -> setterWriter(type, p))
+                : FIELDS.get(type).computeIfAbsent(property, p -> fieldWriter(type, p));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> lambdaConstructor(Class<?> type) {
+        try {
+            MethodHandle constructor = LOOKUP.findConstructor(type, MethodType.methodType(void.class));
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    constructor,
+                    MethodType.methodType(type));
+            return (Supplier<Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalArgumentException(type.getName() + " needs a public no-arg constructor", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setterWriter(Class<?> type, String property) {
+        String setterName = "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        Method setter = Arrays.stream(type.getMethods())
+                .filter(m -> m.getName().equals(setterName) && m.getParameterCount() == 1 && !Modifier.isStatic(m.getModifiers()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No public setter " + setterName + " on " + type.getName()));
+        try {
+            MethodHandle handle = LOOKUP.unreflect(setter);
+            Class<?> valueType = MethodType.methodType(setter.getParameterTypes()[0]).wrap().returnType();
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(void.class, type, valueType));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("Cannot bind setter " + setterName + " on " + type.getName(), e);
+        }
+    }
+
+    private static BiConsumer<Object, Object> fieldWriter(Class<?> type, String property) {
+        Field field = findField(type, property);
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.privateLookupIn(field.getDeclaringClass(), LOOKUP)
+                    .unreflectSetter(field)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot bind field " + property + " on " + type.getName(), e);
+        }
+        return (target, value) -> {
+            try {
+                handle.invokeExact(target, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    private static Field findField(Class<?> type, String property) {
+        for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredField(property);
+            } catch (NoSuchFieldException ignored) {
+                // 상위 클래스에서 계속 찾는다.
+            }
+        }
+        throw new IllegalArgumentException("No field " + property + " on " + type.getName());
+    }
+
+    private static final class DtoExpression<T> extends FactoryExpressionBase<T> {
+
+        private final List<Expression<?>> args;
+        private final boolean useSetter;
+        private final Supplier<Object> constructor;
+        private final BiConsumer<Object, Object>[] writers;
+
+        @SuppressWarnings("unchecked")
+        DtoExpression(Class<T> type, boolean useSetter, Expression<?>... exprs) {
+            super(type);
+            this.args = List.of(exprs);
+            this.useSetter = useSetter;
+            this.constructor = constructor(type);
+            this.writers = new BiConsumer[exprs.length];
+            for (int i = 0; i < exprs.length; i++) {
+                writers[i] = writer(type, propertyName(exprs[i]), useSetter);
+            }
+        }
+
+        @Override
+        public List<Expression<?>> getArgs() {
+            return args;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T newInstance(Object... values) {
+            Object instance = constructor.get();
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {    // Projections.bean/fields와 같이 null은 건너뛴다. (primitive 필드 보호)
+                    writers[i].accept(instance, values[i]);
+                }
+            }
+            return (T) instance;
+        }
+
+        @Override
+        public <R, C> R accept(Visitor<R, C> v, C context) {
+            return v.visit(this, context);
+        }
+
+        /**
+         * hashCode는 ExpressionBase의 final 구현(타입 + args)을 그대로 쓴다. 같은 타입·args면 해시도 같으므로
+         * useSetter까지 비교하는 이 equals와 일관된다.
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            return obj instanceof DtoExpression<?> other
+                    && getType().equals(other.getType())
+                    && useSetter == other.useSetter
+                    && args.equals(other.args);
+        }
+    }
+}
@@ -1,11 +1,33 @@
 package study.querydsl.repository.support;
+import com.querydsl.core.DefaultQueryMetadata;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinFlag;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.Constant;
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
 import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.JPQLQueryMixin;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.ManagedType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -16,8 +38,12 @@ import org.springframework.data.querydsl.SimpleEntityPathResolver;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 /**
  * Querydsl 4.x 버전에 맞춘 Querydsl 지원 라이브러리
  *
@@ -68,13 +94,18 @@ public abstract class Querydsl4RepositorySupport {
     protected <T> JPAQuery<T> selectFrom(EntityPath<T> from) {
         return getQueryFactory().selectFrom(from);
     }
+    /**
+     * count 쿼리는 content 쿼리에서 만든다. (countOf)
+     * count 쿼리로 만들 수 없는 content 쿼리는 IllegalArgumentException. count 쿼리를 받는 오버로드를 사용한다.
+     */
     protected <T> Page<T> applyPagination(Pageable pageable,
                                           Function<JPAQueryFactory, JPAQuery> contentQuery) {
         JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+        LongSupplier total = countOf(jpaQuery);    // 페이징(offset/limit/sort)이 붙기 전에 만든다
         List<T> content = getQuerydsl().applyPagination(pageable,
                 jpaQuery).fetch();
         return PageableExecutionUtils.getPage(content, pageable,
-                jpaQuery::fetchCount);
+                total);
     }
     protected <T> Page<T> applyPagination(Pageable pageable,
                                           Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory,
@@ -86,4 +117,224 @@ public abstract class Querydsl4RepositorySupport {
         return PageableExecutionUtils.getPage(content, pageable,
                 countResult::fetchCount);
     }
-}
\ No newline at end of file
+    /**
+     * content 쿼리의 count를 구하는 방법.
+     * <ul>
+     *     <li>deriveCountQuery로 만들 수 있으면 count(id)</li>
+     *     <li>having 없이 group by 식이 하나이거나, distinct로 식 하나를 조회하면 count(distinct 식) (deriveDistinctCountQuery)</li>
+     * </ul>
+     * group by 식이 여럿이거나 having이 있는 쿼리, 여러 식을 distinct로 조회하는 쿼리는 JPQL의 count 한 번으로 셀 수 없다.
+     * 결과를 모두 읽어서 세면 페이지마다 결과 크기만큼 비용이 들므로 지원하지 않는다. (IllegalArgumentException)
+     */
+    protected LongSupplier countOf(JPAQuery<?> contentQuery) {
+        JPAQuery<Long> countQuery = deriveCountQuery(contentQuery);
+        if (countQuery == null) {
+            countQuery = deriveDistinctCountQuery(contentQuery);
+        }
+        if (countQuery == null) {
+            throw new IllegalArgumentException("Cannot derive a count query for " + contentQuery
+                    + "; pass an explicit count query to applyPagination(pageable, contentQuery, countQuery)");
+        }
+        return countQuery::fetchOne;
+    }
+    /**
+     * group by 식 하나(having 없음) 또는 distinct로 조회하는 식 하나의 서로 다른 값 수를 센다.
+     * count(distinct)는 null을 세지 않지만 group by/distinct 결과에는 null 행이 하나 생기므로 따로 더한다.
+     * 그 밖의 경우는 null.
+     */
+    protected JPAQuery<Long> deriveDistinctCountQuery(JPAQuery<?> contentQuery) {
+        QueryMetadata metadata = contentQuery.getMetadata();
+        Expression<?> key;
+        if (metadata.getHaving() != null) {
+            return null;
+        } else if (metadata.getGroupBy().size() == 1) {
+            key = metadata.getGroupBy().get(0);
+        } else if (metadata.getGroupBy().isEmpty() && metadata.isDistinct() && metadata.getProjection() != null
+                && !(metadata.getProjection() instanceof FactoryExpression<?>)) {
+            key = unalias(metadata.getProjection());
+        } else {
+            return null;
+        }
+        NumberExpression<Long> nullGroup = new CaseBuilder()
+                .when(ExpressionUtils.isNull(key)).then(1L)
+                .otherwise(0L)
+                .max().coalesce(0L);
+        return new JPAQuery<>(entityManager, copyOf(metadata))
+                .select(Expressions.numberOperation(Long.class, Ops.AggOps.COUNT_DISTINCT_AGG, key).add(nullGroup));
+    }
+    /**
+     * content 쿼리의 메타데이터로 count 쿼리를 만든다.
+     * <ul>
+     *     <li>projection, order by, offset/limit과 fetch join 플래그는 뺀다.</li>
+     *     <li>where나 남은 join에서 참조하지 않는 to-one left join은 뺀다. (결과 row 수가 바뀌지 않는다)</li>
+     *     <li>select는 count(루트 엔티티의 id)</li>
+     * </ul>
+     * group by/having/distinct가 있으면 null.
+     */
+    protected JPAQuery<Long> deriveCountQuery(JPAQuery<?> contentQuery) {
+        QueryMetadata metadata = contentQuery.getMetadata();
+        if (!metadata.getGroupBy().isEmpty() || metadata.getHaving() != null || metadata.isDistinct()
+                || metadata.getJoins().isEmpty()) {
+            return null;
+        }
+        List<JoinExpression> joins = metadata.getJoins();
+        Set<Expression<?>> referenced = new HashSet<>();
+        collectPaths(metadata.getWhere(), referenced);
+        boolean[] keep = new boolean[joins.size()];
+        keep[0] = true;     // from
+        // 뒤의 join이 앞의 join 별칭을 참조할 수 있으므로 뒤에서부터 판단
+        for (int i = joins.size() - 1; i > 0; i--) {
+            JoinExpression join = joins.get(i);
+            if (isPrunable(join) && !referenced.contains(joinAlias(join))) {
+                continue;
+            }
+            keep[i] = true;
+            collectPaths(join.getTarget(), referenced);
+            collectPaths(join.getCondition(), referenced);
+        }
+        DefaultQueryMetadata count = new DefaultQueryMetadata();
+        count.setValidate(false);
+        for (int i = 0; i < joins.size(); i++) {
+            if (keep[i]) {
+                copyJoin(joins.get(i), count);
+            }
+        }
+        copyWhereAndParams(metadata, count);
+        JPAQuery<Long> countQuery = new JPAQuery<>(entityManager, count);
+        return countQuery.select(countExpression(joins.get(0).getTarget()));
+    }
+    /**
+     * projection, order by, offset/limit, distinct, group by/having과 fetch join 플래그를 뺀 메타데이터.
+     */
+    private static QueryMetadata copyOf(QueryMetadata metadata) {
+        DefaultQueryMetadata copy = new DefaultQueryMetadata();
+        copy.setValidate(false);
+        metadata.getJoins().forEach(join -> copyJoin(join, copy));
+        copyWhereAndParams(metadata, copy);
+        return copy;
+    }
+    private static void copyJoin(JoinExpression join, DefaultQueryMetadata target) {
+        target.addJoin(join.getType(), join.getTarget());
+        if (join.getCondition() != null) {
+            target.addJoinCondition(join.getCondition());
+        }
+        for (JoinFlag flag : join.getFlags()) {
+            if (!flag.equals(JPQLQueryMixin.FETCH) && !flag.equals(JPQLQueryMixin.FETCH_ALL_PROPERTIES)) {
+                target.addJoinFlag(flag);
+            }
+        }
+    }
+    @SuppressWarnings("unchecked")
+    private static void copyWhereAndParams(QueryMetadata metadata, DefaultQueryMetadata target) {
+        if (metadata.getWhere() != null) {
+            target.addWhere(metadata.getWhere());
+        }
+        for (Map.Entry<ParamExpression<?>, Object> param : metadata.getParams().entrySet()) {
+            target.setParam((ParamExpression<Object>) param.getKey(), param.getValue());
+        }
+    }
+    private static Expression<?> unalias(Expression<?> expression) {
+        if (expression instanceof Operation<?> alias && alias.getOperator() == Ops.ALIAS) {
+            return alias.getArg(0);
+        }
+        return expression;
+    }
+    private Expression<Long> countExpression(Expression<?> root) {
+        if (root instanceof EntityPath<?> entity) {
+            EntityType<?> entityType = entityManager.getMetamodel().entity(entity.getType());
+            if (entityType.hasSingleIdAttribute()) {
+                String idName = entityType.getId(entityType.getIdType().getJavaType()).getName();
+                Path<?> id = new PathBuilder<>(entity.getType(), entity.getMetadata()).get(idName);
+                return Expressions.numberOperation(Long.class, Ops.AggOps.COUNT_AGG, id);
+            }
+        }
+        return Expressions.numberOperation(Long.class, Ops.AggOps.COUNT_AGG, root);
+    }
+    /**
+     * left join이고, join 대상이 to-one 연관관계(@ManyToOne, @OneToOne)이면 row 수에 영향이 없다.
+     */
+    private boolean isPrunable(JoinExpression join) {
+        if (join.getType() != JoinType.LEFTJOIN) {
+            return false;
+        }
+        Expression<?> target = join.getTarget();
+        if (target instanceof Operation<?> alias && alias.getOperator() == Ops.ALIAS) {
+            target = alias.getArg(0);
+        }
+        if (!(target instanceof Path<?> association) || association.getMetadata().getParent() == null) {
+            return false;   // 연관관계가 아닌 join (세타 조인 등)
+        }
+        try {
+            ManagedType<?> owner = entityManager.getMetamodel().managedType(association.getMetadata().getParent().getType());
+            Attribute<?, ?> attribute = owner.getAttribute(association.getMetadata().getName());
+            return attribute.isAssociation() && !attribute.isCollection();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    private static Expression<?> joinAlias(JoinExpression join) {
+        Expression<?> target = join.getTarget();
+        if (target instanceof Operation<?> alias && alias.getOperator() == Ops.ALIAS) {
+            return alias.getArg(1);
+        }
+        return target;
+    }
+    /**
+     * 식에 나오는 모든 경로와 그 상위 경로(member.team.name -> member.team, member)를 모은다.
+     */
+    private static void collectPaths(Expression<?> expression, Set<Expression<?>> paths) {
+        if (expression != null) {
+            expression.accept(PathCollector.INSTANCE, paths);
+        }
+    }
+    private enum PathCollector implements Visitor<Void, Set<Expression<?>>> {
+        INSTANCE;
+        @Override
+        public Void visit(Constant<?> expr, Set<Expression<?>> paths) {
+            return null;
+        }
+        @Override
+        public Void visit(FactoryExpression<?> expr, Set<Expression<?>> paths) {
+            expr.getArgs().forEach(arg -> arg.accept(this, paths));
+            return null;
+        }
+        @Override
+        public Void visit(Operation<?> expr, Set<Expression<?>> paths) {
+            expr.getArgs().forEach(arg -> arg.accept(this, paths));
+            return null;
+        }
+        @Override
+        public Void visit(ParamExpression<?> expr, Set<Expression<?>> paths) {
+            return null;
+        }
+        @Override
+        public Void visit(Path<?> expr, Set<Expression<?>> paths) {
+            for (Path<?> path = expr; path != null; path = path.getMetadata().getParent()) {
+                paths.add(path);
+            }
+            return null;
+        }
+        @Override
+        public Void visit(SubQueryExpression<?> expr, Set<Expression<?>> paths) {
+            // 상관 서브쿼리가 바깥 별칭을 참조할 수 있다
+            QueryMetadata metadata = expr.getMetadata();
+            collectPaths(metadata.getProjection(), paths);
+            collectPaths(metadata.getWhere(), paths);
+            collectPaths(metadata.getHaving(), paths);
+            for (JoinExpression join : metadata.getJoins()) {
+                collectPaths(join.getTarget(), paths);
+                collectPaths(join.getCondition(), paths);
+            }
+            return null;
+        }
+        @Override
+        public Void visit(TemplateExpression<?> expr, Set<Expression<?>> paths) {
+            for (Object arg : expr.getArgs()) {
+                if (arg instanceof Expression<?> expression) {
+                    expression.accept(this, paths);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package study.querydsl.repository.support;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 조회 쿼리를 별도 스레드의 읽기 전용 트랜잭션(= 별도 EntityManager, 별도 커넥션)에서 실행한다.
+ * 호출한 쪽과 같은 격리 수준을 사용하지만 같은 스냅샷을 공유하지는 않는다.
+ * 호출한 쪽에 쓰기 트랜잭션이 열려 있으면 커밋되지 않은 변경이 보이지 않으므로 호출 스레드에서 그대로 실행한다.
+ *
+ * <p>호출한 요청은 이미 커넥션을 하나 잡고 있으므로, 두 번째 커넥션을 기다리다 모든 요청이 서로를 막지 않도록
+ * ConnectionPermits에서 허가를 얻지 못하면(허가 소진 또는 쉬는 커넥션 없음) 호출 스레드에서 그대로 실행한다.
+ */
+@Component
+public class ReadOnlyQueryExecutor {
+
+    private final PlatformTransactionManager transactionManager;
+    private final ConnectionPermits permits;
+    private final TaskDecorator taskDecorator;
+    private final ExecutorService executor;
+
+    public ReadOnlyQueryExecutor(PlatformTransactionManager transactionManager, ConnectionPermits permits,
+                                 ObjectProvider<TaskDecorator> taskDecorator,
+                                 @Value("${search.executor.threads:4}") int threads,
+                                 @Value("${search.executor.queue-capacity:100}") int queueCapacity) {
+        this.transactionManager = transactionManager;
+        this.permits = permits;
+        this.taskDecorator = taskDecorator.getIfUnique(() -> task -> task);
+        // 큐가 가득 차면 호출 스레드에서 실행 (순차 실행과 같아짐)
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                ReadOnlyTransactions.daemonThreads("read-only-query-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> query) {
+        if (ReadOnlyTransactions.mustRunInline() || !permits.tryAcquire()) {
+            return CompletableFuture.completedFuture(query.get());
+        }
+
+        TransactionTemplate template = ReadOnlyTransactions.readOnlyRequiresNew(transactionManager);
+        Supplier<T> task = ReadOnlyTransactions.decorate(taskDecorator, () -> template.execute(status -> query.get()));
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return task.get();
+                } finally {
+                    permits.release();
+                }
+            }, executor);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * CompletableFuture.join()이 감싼 예외를 원래 예외로 풀어서 던진다.
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,65 @@
+package study.querydsl.repository.support;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * ReadOnlyQueryExecutor와 AsyncQueryExecutor가 공유하는 부분.
+ */
+final class ReadOnlyTransactions {
+
+    private ReadOnlyTransactions() {
+    }
+
+    /**
+     * 호출한 쪽에 쓰기 트랜잭션이 열려 있으면 커밋되지 않은 변경이 다른 스레드에서 보이지 않으므로 호출 스레드에서 실행해야 한다.
+     */
+    static boolean mustRunInline() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * 읽기 전용 REQUIRES_NEW 트랜잭션. 호출한 쪽 트랜잭션의 격리 수준이 있으면 같은 수준을 쓴다.
+     * (같은 격리 수준일 뿐 같은 스냅샷을 공유하지는 않는다)
+     */
+    static TransactionTemplate readOnlyRequiresNew(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Integer isolationLevel = TransactionSynchronizationManager.getCurrentTransactionIsolationLevel();
+        if (isolationLevel != null) {
+            template.setIsolationLevel(isolationLevel);
+        }
+        return template;
+    }
+
+    /**
+     * 호출 스레드에서 decorate해서 스레드 로컬 문맥(QueryShapeTracker의 메서드 이름 등)을 작업 스레드로 넘긴다.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Supplier<T> decorate(TaskDecorator decorator, Supplier<T> task) {
+        Object[] result = new Object[1];
+        Runnable decorated = decorator.decorate(() -> result[0] = task.get());
+        return () -> {
+            decorated.run();
+            return (T) result[0];
+        };
+    }
+
+    static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
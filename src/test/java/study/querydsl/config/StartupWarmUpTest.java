@@ -0,0 +1,87 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.CountStrategy;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchCache;
+import study.querydsl.repository.MemberSearchQueries;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "startup.warm-up.enabled=true",
+        "startup.warm-up.iterations=2"
+})
+@Transactional
+class StartupWarmUpTest {
+
+    @TestConfiguration
+    static class RunnerProbeConfig {
+        @Bean
+        RunnerProbe runnerProbe(ApplicationAvailability availability, MemberSearchQueries searchQueries,
+                                MemberSearchCache searchCache) {
+            return new RunnerProbe(availability, searchQueries, searchCache);
+        }
+    }
+
+    /**
+     * StartupWarmUp 다음에 실행되는 ApplicationRunner. 워밍업이 끝난 시점의 상태를 기록한다.
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    static class RunnerProbe implements ApplicationRunner {
+
+        private final ApplicationAvailability availability;
+        private final MemberSearchQueries searchQueries;
+        private final MemberSearchCache searchCache;
+        ReadinessState readiness;
+        long queryMisses;
+        int cacheSize;
+
+        RunnerProbe(ApplicationAvailability availability, MemberSearchQueries searchQueries, MemberSearchCache searchCache) {
+            this.availability = availability;
+            this.searchQueries = searchQueries;
+            this.searchCache = searchCache;
+        }
+
+        @Override
+        public void run(ApplicationArguments args) {
+            readiness = availability.getReadinessState();
+            queryMisses = searchQueries.getMissCount();
+            cacheSize = searchCache.size();
+        }
+    }
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberSearchQueries searchQueries;
+    @Autowired ApplicationAvailability availability;
+    @Autowired RunnerProbe probe;
+
+    @Test
+    public void everyShapeIsPreparedBeforeReadiness() {
+        assertThat(probe.readiness).isEqualTo(ReadinessState.REFUSING_TRAFFIC);    // 워밍업이 끝났지만 아직 트래픽을 받지 않는다
+        assertThat(probe.queryMisses).isEqualTo(32);   // 16가지 조합의 content + count
+        assertThat(probe.cacheSize).isZero();          // 워밍업 결과는 남기지 않는다
+        assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(20);
+        memberRepository.search(condition);
+        memberRepository.searchPage(condition, PageRequest.of(0, 10), CountStrategy.EXACT);
+
+        assertThat(searchQueries.getMissCount()).isEqualTo(probe.queryMisses);
+    }
+}
@@ -26,7 +26,9 @@ import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberDto;
 import study.querydsl.dto.QMemberDto;
 import study.querydsl.dto.UserDto;
+import study.querydsl.repository.support.DtoProjections;
 
+import java.util.HashSet;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -535,6 +537,44 @@ public class QuerydslBasicTest {
         }
     }
 
+    @Test
+    public void findDtoByLambdaSetter() {   // 리플렉션 없이 setter 호출
+        List<MemberDto> result = queryFactory
+                .select(DtoProjections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch();
+
+        assertThat(result).extracting("username").containsExactly("member1", "member2", "member3", "member4");
+        assertThat(result).extracting("age").containsExactly(10, 20, 30, 40);
+    }
+
+    @Test
+    public void findUserDtoByLambdaFields() {   // 별칭 + private 필드
+        QMember memberSub = new QMember("memberSub");
+        List<UserDto> result = queryFactory
+                .select(DtoProjections.fields(UserDto.class, member.username.as("name"),
+                        ExpressionUtils.as(
+                                JPAExpressions.select(memberSub.age.max())
+                                        .from(memberSub), "age")
+                        )
+                ).from(member)
+                .fetch();
+
+        assertThat(result).extracting("name").containsExactly("member1", "member2", "member3", "member4");
+        assertThat(result).extracting("age").containsOnly(40);
+    }
+
+    @Test
+    public void lambdaProjectionEqualsAndHashCode() {   // 해시 기반 컬렉션에서도 같은 식으로 취급된다
+        Expression<MemberDto> bean = DtoProjections.bean(MemberDto.class, member.username, member.age);
+        Expression<MemberDto> same = DtoProjections.bean(MemberDto.class, member.username, member.age);
+        Expression<MemberDto> fields = DtoProjections.fields(MemberDto.class, member.username, member.age);
+
+        assertThat(bean).isEqualTo(same).hasSameHashCodeAs(same);
+        assertThat(bean).isNotEqualTo(fields);
+        assertThat(new HashSet<>(List.of(bean, same, fields))).hasSize(2);
+    }
+
     @Test
     public void findDtoByQueryProjection() {
         List<MemberDto> result = queryFactory
@@ -0,0 +1,84 @@
+package study.querydsl.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    static final long FAST = Duration.ofMillis(10).toNanos();
+    static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+    ConcurrencyLimitProperties properties() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(20);
+        return properties;
+    }
+
+    @Test
+    public void rejectsAboveLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties(), () -> 0);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getRejectedCount()).isEqualTo(1);
+
+        limiter.release(FAST, false);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    public void backsOffOnSlowResponsesAndFailures() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties(), () -> 0);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(i % 2 == 0 ? SLOW : FAST, i % 2 != 0);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(2);    // minLimit 아래로는 줄지 않는다
+    }
+
+    @Test
+    public void backsOffWhenConnectionPoolQueues() {
+        AtomicInteger waiting = new AtomicInteger(10);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties(), waiting::get);
+
+        limiter.tryAcquire();
+        limiter.release(FAST, false);
+        assertThat(limiter.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    public void growsAdditivelyWhileSaturatedAndHealthy() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties(), () -> 0);
+
+        for (int round = 0; round < 200; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(FAST, false);
+            }
+        }
+        assertThat(limiter.getLimit()).isEqualTo(20);   // maxLimit에서 멈춘다
+    }
+
+    @Test
+    public void doesNotGrowWhenUnderused() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties(), () -> 0);
+
+        for (int i = 0; i < 1000; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST, false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+}
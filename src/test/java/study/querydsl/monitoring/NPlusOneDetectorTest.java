@@ -0,0 +1,76 @@
+package study.querydsl.monitoring;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.monitoring.StatementBudgetProperties.Mode.FAIL;
+
+@SpringBootTest
+@Transactional
+class NPlusOneDetectorTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired NPlusOneDetector detector;
+
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+        for (int i = 0; i < 4; i++) {
+            Team t = new Team("team" + i);
+            em.persist(t);
+            em.persist(new Member("member" + i, 10 * i, t));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void lazyLoadingInLoopIsDetected() {
+        assertThatThrownBy(() -> {
+            try (NPlusOneDetector.Scope scope = detector.open("lazy", 10, FAIL)) {
+                List<Member> members = queryFactory.selectFrom(member).fetch();
+                for (Member m : members) {
+                    m.getTeam().getName();  // 회원마다 team select
+                }
+            }
+        }).isInstanceOf(StatementBudgetExceededException.class)
+                .hasMessageContaining("repeated");
+    }
+
+    @Test
+    public void fetchJoinStaysWithinBudget() {
+        try (NPlusOneDetector.Scope scope = detector.open("fetchJoin", 1, FAIL)) {
+            List<Member> members = queryFactory.selectFrom(member).join(member.team, team).fetchJoin().fetch();
+            for (Member m : members) {
+                m.getTeam().getName();
+            }
+            assertThat(scope.getTotal()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void shapeIgnoresLiteralsAndComments() {
+        assertThat(NPlusOneDetector.shapeOf("/* select t */ select * from team where team_id = 1"))
+                .isEqualTo(NPlusOneDetector.shapeOf("select *\n  from team where team_id = 42"));
+        assertThat(NPlusOneDetector.shapeOf("select * from member where username = 'a'"))
+                .isEqualTo("select * from member where username = ?");
+    }
+}
@@ -0,0 +1,87 @@
+package study.querydsl.monitoring;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"monitoring.query-plan.enabled=true", "monitoring.query-plan.shape-warning-threshold=3"})
+@Transactional
+class QueryShapeTrackerTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired QueryShapeTracker tracker;
+    @Autowired QueryPlanEndpoint endpoint;
+
+    @BeforeEach
+    public void before() {
+        tracker.reset();
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+    }
+
+    @Test
+    public void groupsPlanCacheLookupsByRepositoryMethod() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+        for (int i = 0; i < 3; i++) {
+            memberJpaRepository.searchByBuilder(condition);     // 같은 JPQL, 값만 다름
+        }
+        condition.setTeamName("teamA");
+        memberJpaRepository.searchByBuilder(condition);
+
+        QueryShapeTracker.MethodReport report = tracker.report().get("MemberJpaRepository.searchByBuilder");
+        assertThat(report.distinctShapes()).isEqualTo(2);
+        assertThat(report.hits() + report.misses()).isEqualTo(4);
+        assertThat(report.topShapes().get(0).executions()).isEqualTo(3);
+        assertThat(report.unbounded()).isFalse();
+
+        QueryPlanEndpoint.QueryPlanReport plans = endpoint.queryPlans();
+        assertThat(plans.statisticsEnabled()).isTrue();
+        assertThat(plans.planCacheHits()).isGreaterThanOrEqualTo(report.hits());
+    }
+
+    @Test
+    public void decoratedTaskKeepsCallingMethod() throws InterruptedException {
+        Runnable task;
+        String previous = tracker.enter("MemberRepositoryImpl.searchAsync");
+        try {
+            task = tracker.decorate(() -> tracker.planCacheMiss("select m from Member m"));
+        } finally {
+            tracker.exit(previous);
+        }
+
+        Thread worker = new Thread(task);   // AsyncQueryExecutor의 작업 스레드처럼 aspect를 거치지 않는다
+        worker.start();
+        worker.join();
+
+        assertThat(tracker.report()).containsKey("MemberRepositoryImpl.searchAsync");
+        assertThat(tracker.report()).doesNotContainKey(QueryShapeTracker.NO_METHOD);
+    }
+
+    @Test
+    public void flagsMethodsGeneratingUnboundedShapes() {
+        for (int i = 0; i < 5; i++) {
+            // in 목록 길이가 바뀌면 JPQL 문자열도 바뀐다
+            em.createQuery("select m from Member m where m.age in (" + "1,".repeat(i) + "0)", Member.class).getResultList();
+        }
+
+        QueryShapeTracker.MethodReport report = tracker.report().get(QueryShapeTracker.NO_METHOD);
+        assertThat(report.distinctShapes()).isEqualTo(5);
+        assertThat(report.unbounded()).isTrue();
+    }
+}
@@ -0,0 +1,66 @@
+package study.querydsl.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class RepositoryMetricsAspectTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MeterRegistry registry;
+
+    @Test
+    public void recordsLatencyRowsAndStatementsPerMethod() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        memberRepository.search(condition);
+
+        Timer timer = registry.get(RepositoryMetricsAspect.LATENCY)
+                .tag("method", "MemberRepositoryImpl.search")
+                .tag("shape", "teamName")
+                .timer();
+        DistributionSummary rows = registry.get(RepositoryMetricsAspect.ROWS)
+                .tag("method", "MemberRepositoryImpl.search")
+                .summary();
+        DistributionSummary statements = registry.get(RepositoryMetricsAspect.STATEMENTS)
+                .tag("method", "MemberRepositoryImpl.search")
+                .summary();
+
+        assertThat(timer.count()).isGreaterThanOrEqualTo(1);
+        assertThat(rows.max()).isEqualTo(2);
+        assertThat(statements.max()).isGreaterThanOrEqualTo(1);   // auto flush insert + select
+    }
+
+    @Test
+    public void conditionShape() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        assertThat(RepositoryMetricsAspect.conditionShape(new Object[]{condition})).isEqualTo("empty");
+
+        condition.setUsername("member1");
+        condition.setAgeLoe(30);
+        assertThat(RepositoryMetricsAspect.conditionShape(new Object[]{condition, null})).isEqualTo("username+ageLoe");
+        assertThat(RepositoryMetricsAspect.conditionShape(new Object[]{})).isEqualTo("none");
+    }
+}
@@ -0,0 +1,29 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberCountCacheTest {
+
+    @Test
+    public void evictsOnlyTheOldestEntryWhenFull() throws InterruptedException {
+        MemberCountCache cache = new MemberCountCache(Duration.ofMinutes(1), 2);
+        MemberConditionKey first = new MemberConditionKey("a", null, null, null);
+        MemberConditionKey second = new MemberConditionKey("b", null, null, null);
+        MemberConditionKey third = new MemberConditionKey("c", null, null, null);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(first, () -> (long) loads.incrementAndGet());
+        Thread.sleep(1);
+        cache.get(second, () -> (long) loads.incrementAndGet());
+        cache.get(third, () -> (long) loads.incrementAndGet());    // first만 밀려난다
+
+        assertThat(cache.get(second, () -> (long) loads.incrementAndGet())).isEqualTo(2);
+        assertThat(cache.get(first, () -> (long) loads.incrementAndGet())).isEqualTo(4);
+        assertThat(loads.get()).isEqualTo(4);
+    }
+}
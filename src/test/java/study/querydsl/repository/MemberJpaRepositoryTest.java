@@ -10,7 +10,9 @@ import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.monitoring.JdbcStatementCounter;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
@@ -23,6 +25,8 @@ public class MemberJpaRepositoryTest {
     EntityManager em;
 
     @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired MemberSearchQueries searchQueries;
+    @Autowired JdbcStatementCounter statementCounter;
 
     @Test
     public void basicTest() {
@@ -81,23 +85,96 @@ public class MemberJpaRepositoryTest {
         assertThat(result).extracting("username").containsExactly("member3","member4");
     }
 
+    @Test
+    public void searchMatchesBuilderForEveryShape() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, null));
+
+        for (int shape = 0; shape < 16; shape++) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setUsername((shape & 1) != 0 ? "member2" : null);
+            condition.setTeamName((shape & 2) != 0 ? "teamA" : null);
+            condition.setAgeGoe((shape & 4) != 0 ? 15 : null);
+            condition.setAgeLoe((shape & 8) != 0 ? 35 : null);
+
+            assertThat(memberJpaRepository.search(condition))
+                    .as("shape %d", shape)
+                    .containsExactlyInAnyOrderElementsOf(memberJpaRepository.searchByBuilder(condition));
+        }
+    }
 
+    @Test
+    public void searchReusesQueryShape() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        memberJpaRepository.search(condition);
+        long hits = searchQueries.getHitCount();
+        long misses = searchQueries.getMissCount();
 
+        condition.setTeamName("teamB");
+        memberJpaRepository.search(condition);
 
+        assertThat(searchQueries.getHitCount()).isEqualTo(hits + 1);
+        assertThat(searchQueries.getMissCount()).isEqualTo(misses);
+    }
 
+    @Test
+    public void streamSearch() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
 
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        List<MemberTeamDto> result = new ArrayList<>();
+        memberJpaRepository.streamSearch(condition, 2, result::add);
 
+        assertThat(result).extracting("username").containsExactly("member2", "member3", "member4", "member5");
+    }
 
+    @Test
+    public void streamSearchStopsWhenConsumerFails() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
 
+        List<MemberTeamDto> result = new ArrayList<>();
+        assertThatThrownBy(() -> memberJpaRepository.streamSearch(new MemberSearchCondition(), 1, dto -> {
+            result.add(dto);
+            throw new IllegalStateException("client disconnected");
+        })).isInstanceOf(IllegalStateException.class);
 
+        assertThat(result).hasSize(1);
+    }
 
-
-
-
-
-
-
-
-
-
+    @Test
+    public void saveAllUsesJdbcBatching() {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            members.add(new Member("member" + i, i));
+        }
+
+        long batched = statementCounter.getBatchedStatements();
+        long batches = statementCounter.getBatchExecutions();
+        long executions = statementCounter.currentThreadCount();
+        memberJpaRepository.saveAll(members);
+
+        // batch_size=100 -> insert batch 3번, allocationSize=100(pooled-lo) -> 시퀀스 조회는 새 블록(1, 101, 201, ...)을 시작한 id마다 한 번
+        long sequenceCalls = members.stream().filter(m -> (m.getId() - 1) % 100 == 0).count();
+        assertThat(sequenceCalls).isBetween(2L, 3L);
+        assertThat(statementCounter.getBatchedStatements() - batched).isEqualTo(250);
+        assertThat(statementCounter.getBatchExecutions() - batches).isEqualTo(3);
+        assertThat(statementCounter.currentThreadCount() - executions).isEqualTo(3 + sequenceCalls);
+        assertThat(memberJpaRepository.findAll()).hasSize(250);
+    }
 }
@@ -0,0 +1,103 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.AsyncQueryExecutor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 비동기 조회는 다른 스레드의 트랜잭션에서 실행되므로 데이터를 실제로 커밋한다.
+ */
+@SpringBootTest(properties = {
+        "search.async.virtual-threads=true",
+        "search.connection-permits=2"
+})
+class MemberRepositoryAsyncTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired AsyncQueryExecutor asyncExecutor;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void before() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            for (int i = 1; i <= 10; i++) {
+                em.persist(new Member("member" + i, i * 10, teamA));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void searchPageAsync() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(35);
+
+        CompletableFuture<Page<MemberTeamDto>> async =
+                memberRepository.searchPageAsync(condition, PageRequest.of(1, 3), CountStrategy.EXACT);
+        Page<MemberTeamDto> sync = memberRepository.searchPage(condition, PageRequest.of(1, 3), CountStrategy.EXACT);
+
+        Page<MemberTeamDto> page = async.join();
+        assertThat(page.getTotalElements()).isEqualTo(7);
+        assertThat(page.getContent()).isEqualTo(sync.getContent());
+        assertThat(memberRepository.searchAsync(condition).join()).hasSize(7);
+    }
+
+    @Test
+    public void usesVirtualThreadsOnlyWhenAvailable() {
+        assertThat(asyncExecutor.isVirtualThreads()).isEqualTo(Runtime.version().feature() >= 21);
+    }
+
+    @Test
+    public void concurrencyIsBoundedByConnectionPermits() {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> futures = IntStream.range(0, 20)
+                .mapToObj(i -> asyncExecutor.submit(() -> {
+                    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    active.decrementAndGet();
+                    return i;
+                }))
+                .toList();
+
+        assertThat(futures.stream().map(CompletableFuture::join)).hasSize(20);
+        assertThat(maxActive.get()).isLessThanOrEqualTo(2);
+    }
+}
@@ -0,0 +1,112 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.ConnectionPermits;
+import study.querydsl.repository.support.ReadOnlyQueryExecutor;
+
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * count 쿼리를 다른 커넥션에서 실행하므로 데이터를 실제로 커밋해야 한다. (@Transactional 롤백 테스트로는 확인 불가)
+ */
+@SpringBootTest
+class MemberRepositoryConcurrentCountTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired ReadOnlyQueryExecutor queryExecutor;
+    @Autowired ConnectionPermits permits;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void before() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            for (int i = 1; i <= 10; i++) {
+                em.persist(new Member("member" + i, i * 10, i % 2 == 0 ? teamA : teamB));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void searchPageConcurrent() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        Page<MemberTeamDto> concurrent = memberRepository.searchPageConcurrent(condition, PageRequest.of(1, 2));
+        Page<MemberTeamDto> sequential = memberRepository.searchPage(condition, PageRequest.of(1, 2), CountStrategy.EXACT);
+
+        assertThat(concurrent.getTotalElements()).isEqualTo(5);
+        assertThat(concurrent.getContent()).isEqualTo(sequential.getContent());
+    }
+
+    @Test
+    public void countRunsWithCallerIsolationLevel() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        for (int isolation : new int[]{TransactionDefinition.ISOLATION_READ_COMMITTED, TransactionDefinition.ISOLATION_SERIALIZABLE}) {
+            template.setIsolationLevel(isolation);
+            template.executeWithoutResult(status -> {
+                int callerIsolation = currentIsolation();
+                int countIsolation = ReadOnlyQueryExecutor.join(queryExecutor.submit(this::currentIsolation));
+
+                assertThat(callerIsolation).isEqualTo(isolation);
+                assertThat(countIsolation).isEqualTo(callerIsolation);
+            });
+        }
+    }
+
+    @Test
+    public void countRunsInlineWhenNoPermitIsLeft() {
+        for (int i = 0; i < permits.getTotal(); i++) {
+            permits.acquire();
+        }
+        try {
+            Thread worker = ReadOnlyQueryExecutor.join(queryExecutor.submit(Thread::currentThread));
+            assertThat(worker).isSameAs(Thread.currentThread());
+        } finally {
+            for (int i = 0; i < permits.getTotal(); i++) {
+                permits.release();
+            }
+        }
+
+        Thread worker = ReadOnlyQueryExecutor.join(queryExecutor.submit(Thread::currentThread));
+        assertThat(worker).isNotSameAs(Thread.currentThread());
+    }
+
+    private int currentIsolation() {
+        return em.unwrap(Session.class).doReturningWork(Connection::getTransactionIsolation);
+    }
+}
@@ -7,7 +7,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.KeysetPage;
+import study.querydsl.dto.MemberKeysetSort;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
@@ -17,6 +20,7 @@ import study.querydsl.entity.Team;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @Transactional
@@ -95,6 +99,106 @@ class MemberRepositoryTest {
         assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
     }
 
+    @Test
+    public void searchPageCountStrategies() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        for (CountStrategy strategy : CountStrategy.values()) {
+            Page<MemberTeamDto> result = memberRepository.searchPage(condition, PageRequest.of(1, 2), strategy);
+
+            assertThat(result.getContent()).as(strategy.name()).extracting("username").containsExactly("member3", "member4");
+            assertThat(result.getTotalElements()).as(strategy.name()).isEqualTo(5);
+        }
+    }
+
+    @Test
+    public void searchPageEstimatedCountWithoutCondition() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
+        em.flush();
+
+        // 조건이 없으면 테이블 통계의 추정치를 쓴다. 추정치는 정확하지 않지만 이미 읽은 범위보다 작지는 않다.
+        Page<MemberTeamDto> middle = memberRepository.searchPage(new MemberSearchCondition(), PageRequest.of(1, 2), CountStrategy.ESTIMATED);
+        assertThat(middle.getContent()).hasSize(2);
+        assertThat(middle.getTotalElements()).isGreaterThanOrEqualTo(4);
+
+        Page<MemberTeamDto> last = memberRepository.searchPage(new MemberSearchCondition(), PageRequest.of(2, 2), CountStrategy.ESTIMATED);
+        assertThat(last.getContent()).hasSize(1);
+        assertThat(last.getTotalElements()).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    public void searchSlice() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
+
+        Slice<MemberTeamDto> first = memberRepository.searchSlice(new MemberSearchCondition(), PageRequest.of(0, 3));
+        Slice<MemberTeamDto> last = memberRepository.searchSlice(new MemberSearchCondition(), PageRequest.of(1, 3));
+
+        assertThat(first.getContent()).hasSize(3);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(last.getContent()).extracting("username").containsExactly("member4", "member5");
+        assertThat(last.hasNext()).isFalse();
+    }
+
+    @Test
+    public void searchKeyset() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 40, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 20, teamB));
+        em.persist(new Member("member4", 10, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        KeysetPage<MemberTeamDto> first = memberRepository.searchKeyset(condition, MemberKeysetSort.AGE, null, 3);
+        assertThat(first.getContent()).extracting("username").containsExactly("member4", "member2", "member3");
+        assertThat(first.isHasNext()).isTrue();
+
+        KeysetPage<MemberTeamDto> second = memberRepository.searchKeyset(condition, MemberKeysetSort.AGE, first.getNextCursor(), 3);
+        assertThat(second.getContent()).extracting("username").containsExactly("member1");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void searchKeysetRejectsCursorOfOtherSort() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+
+        KeysetPage<MemberTeamDto> page = memberRepository.searchKeyset(new MemberSearchCondition(), MemberKeysetSort.ID, null, 1);
+
+        assertThatThrownBy(() -> memberRepository.searchKeyset(new MemberSearchCondition(), MemberKeysetSort.AGE, page.getNextCursor(), 1))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessageNotContaining(page.getNextCursor());
+    }
+
+    @Test
+    public void searchKeysetRejectsNonPositiveSize() {
+        assertThatThrownBy(() -> memberRepository.searchKeyset(new MemberSearchCondition(), MemberKeysetSort.AGE, null, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .isNotInstanceOf(InvalidCursorException.class);
+    }
+
     @Test
     public void querydslPredicateExecutorTest() {
         Team teamA = new Team("teamA");
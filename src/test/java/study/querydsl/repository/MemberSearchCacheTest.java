@@ -0,0 +1,157 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 캐시는 쓰기 트랜잭션 밖에서만 동작하므로 데이터를 커밋하고 트랜잭션 없이 조회한다.
+ */
+@SpringBootTest
+class MemberSearchCacheTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberSearchCache searchCache;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+            em.persist(new Member("member3", 30, teamB));
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void repeatedSearchIsServedFromCache() {
+        MemberSearchCondition condition = teamCondition("teamA");
+        memberRepository.search(condition);
+        long hits = searchCache.getHitCount();
+
+        List<MemberTeamDto> result = memberRepository.search(condition);
+
+        assertThat(searchCache.getHitCount()).isEqualTo(hits + 1);
+        assertThat(result).extracting("username").containsExactly("member1", "member2");
+    }
+
+    @Test
+    public void changeTeamInvalidates() {
+        MemberSearchCondition condition = teamCondition("teamB");
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("member3");
+
+        tx.executeWithoutResult(status -> {
+            Member member1 = em.createQuery("select m from Member m where m.username = 'member1'", Member.class).getSingleResult();
+            Team teamB = em.createQuery("select t from Team t where t.name = 'teamB'", Team.class).getSingleResult();
+            member1.changeTeam(teamB);
+        });
+
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactlyInAnyOrder("member1", "member3");
+    }
+
+    @Test
+    public void bulkUpdateInvalidates() {
+        MemberSearchCondition condition = teamCondition("teamA");
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("member1", "member2");
+
+        tx.executeWithoutResult(status -> new JPAQueryFactory(em)
+                .update(member)
+                .set(member.username, "비회원")
+                .where(member.age.lt(28))
+                .execute());
+
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("비회원", "비회원");
+    }
+
+    @Test
+    public void manyWritesInOneTransactionInvalidateOnce() {
+        memberRepository.search(teamCondition("teamA"));
+        long invalidations = searchCache.getInvalidationCount();
+
+        tx.executeWithoutResult(status -> {
+            Team teamA = em.createQuery("select t from Team t where t.name = 'teamA'", Team.class).getSingleResult();
+            for (int i = 0; i < 100; i++) {
+                em.persist(new Member("bulk" + i, i, teamA));
+            }
+            em.flush();
+            assertThat(searchCache.getInvalidationCount()).isEqualTo(invalidations);   // 커밋 전에는 비우지 않는다
+        });
+
+        assertThat(searchCache.getInvalidationCount()).isEqualTo(invalidations + 1);
+        assertThat(memberRepository.search(teamCondition("teamA"))).hasSize(102);
+    }
+
+    @Test
+    public void callersCannotChangeCachedResults() {
+        MemberSearchCondition condition = teamCondition("teamA");
+        memberRepository.search(condition).get(0).setUsername("changed");    // 처음 조회한 결과
+        memberRepository.search(condition).get(1).setUsername("changed");    // 캐시에서 꺼낸 결과
+
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("member1", "member2");
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        MemberSearchCache cache = new MemberSearchCache(true, 2);
+        cache.get("a", () -> "A");
+        cache.get("b", () -> "B");
+        cache.get("a", () -> "A");  // a를 최근 사용으로 만든다
+        cache.get("c", () -> "C");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+        assertThat(cache.get("b", () -> "reloaded")).isEqualTo("reloaded");
+        assertThat(cache.get("a", () -> "reloaded")).isEqualTo("A");
+    }
+
+    @Test
+    public void resultLoadedDuringInvalidationIsNotStored() {
+        MemberSearchCache cache = new MemberSearchCache(true, 10);
+        cache.get("a", () -> {
+            cache.invalidateAll();
+            return "stale";
+        });
+
+        assertThat(cache.get("a", () -> "fresh")).isEqualTo("fresh");
+    }
+
+    private MemberSearchCondition teamCondition(String teamName) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName(teamName);
+        return condition;
+    }
+}
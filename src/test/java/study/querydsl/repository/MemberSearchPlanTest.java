@@ -0,0 +1,141 @@
+package study.querydsl.repository;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 16가지 검색 조건 조합과 페이징 count 쿼리에 대해 H2 EXPLAIN을 실행해서,
+ * 조건이 있는 쿼리가 테이블 전체 스캔(tableScan)을 하면 실패한다.
+ * 행이 적으면 옵티마이저가 인덱스 대신 스캔을 고를 수 있으므로 픽스처가 MIN_MEMBERS_FOR_PLAN_CHECK 이상을 넣고 먼저 확인한다.
+ */
+@SpringBootTest
+@Transactional
+class MemberSearchPlanTest {
+
+    static final int MIN_MEMBERS_FOR_PLAN_CHECK = 1_000;
+    static final int PLAN_MEMBERS = 2_000;
+
+    @TestConfiguration
+    static class SqlCaptureConfig {
+        @Bean
+        SqlCapture sqlCapture() {
+            return new SqlCapture();
+        }
+    }
+
+    /**
+     * capturing 동안 실행된 select를 값이 채워진 SQL로 모은다.
+     */
+    static class SqlCapture extends JdbcEventListener {
+
+        private final ThreadLocal<List<String>> captured = new ThreadLocal<>();
+
+        List<String> capture(Runnable action) {
+            List<String> statements = new ArrayList<>();
+            captured.set(statements);
+            try {
+                action.run();
+            } finally {
+                captured.remove();
+            }
+            return statements;
+        }
+
+        @Override
+        public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+            List<String> statements = captured.get();
+            if (statements != null) {
+                statements.add(statementInformation.getSqlWithValues());
+            }
+        }
+    }
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired SqlCapture sqlCapture;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void before() {
+        // 기존 시퀀스 값과 겹치지 않는 id로 팀 20개, 회원 PLAN_MEMBERS명
+        em.createNativeQuery("insert into team (team_id, name) select 1000000 + x, 'planTeam' || x from system_range(1, 20)")
+                .executeUpdate();
+        em.createNativeQuery("insert into member (member_id, username, age, team_id) " +
+                        "select 1000000 + x, 'planMember' || x, mod(x, 100), 1000001 + mod(x, 20) from system_range(1, " + PLAN_MEMBERS + ")")
+                .executeUpdate();
+    }
+
+    @Test
+    public void searchShapesUseIndexes() {
+        assertDataLargeEnough();
+
+        // shape 0(조건 없음)은 전체 회원을 읽는 쿼리라서 테이블 스캔이 맞는 계획이므로 검사하지 않는다
+        for (int shape = 1; shape < 16; shape++) {
+            MemberSearchCondition condition = condition(shape);
+            List<String> statements = sqlCapture.capture(() -> memberRepository.search(condition));
+
+            assertThat(statements).as("shape %d", shape).hasSize(1);
+            assertNoTableScan(shape, statements.get(0));
+        }
+    }
+
+    @Test
+    public void pagingQueriesUseIndexes() {
+        assertDataLargeEnough();
+
+        // shape 0은 content/count 모두 전체를 읽는다 (count는 CountStrategy.ESTIMATED로 피한다)
+        for (int shape = 1; shape < 16; shape++) {
+            MemberSearchCondition condition = condition(shape);
+            List<String> statements = sqlCapture.capture(() ->
+                    memberRepository.searchPage(condition, PageRequest.of(0, 10), CountStrategy.EXACT));
+
+            assertThat(statements).as("shape %d: content + count", shape).hasSize(2);
+            statements.forEach(sql -> assertNoTableScan(shape, sql));
+        }
+    }
+
+    /**
+     * 건너뛰지 않고 실패시킨다. 픽스처가 줄어 기준 아래로 내려가면 계획 검사가 의미 없어지기 때문이다.
+     */
+    private void assertDataLargeEnough() {
+        Long members = jdbcTemplate.queryForObject("select count(*) from member", Long.class);
+        assertThat(members).as("plan checks need at least %d members", MIN_MEMBERS_FOR_PLAN_CHECK)
+                .isGreaterThanOrEqualTo((long) MIN_MEMBERS_FOR_PLAN_CHECK);
+    }
+
+    private void assertNoTableScan(int shape, String sql) {
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+        assertThat(plan)
+                .as("shape %d plan for %s", shape, sql)
+                .doesNotContainIgnoringCase("tableScan");
+    }
+
+    private static MemberSearchCondition condition(int shape) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername((shape & 1) != 0 ? "planMember42" : null);
+        condition.setTeamName((shape & 2) != 0 ? "planTeam3" : null);
+        condition.setAgeGoe((shape & 4) != 0 ? 90 : null);
+        condition.setAgeLoe((shape & 8) != 0 ? 5 : null);
+        return condition;
+    }
+}
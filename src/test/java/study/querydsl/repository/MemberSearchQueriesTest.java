@@ -0,0 +1,64 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.Query;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberSearchQueriesTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired MemberSearchQueries searchQueries;
+
+    @Test
+    public void countJoinsTeamOnlyForTeamNameCondition() {
+        for (int shape = 0; shape < 16; shape++) {
+            MemberConditionKey key = key(shape);
+            String count = searchQueries.count(em, key).unwrap(Query.class).getQueryString();
+            String content = searchQueries.content(em, key).unwrap(Query.class).getQueryString();
+
+            if (key.teamName() != null) {
+                assertThat(count).as("shape %d", shape).contains(" join m.team t");
+            } else {
+                assertThat(count).as("shape %d", shape).doesNotContain("join");
+            }
+            assertThat(content).as("shape %d", shape).contains("m.team.id").contains("join m.team t");
+        }
+    }
+
+    @Test
+    public void prunedCountMatchesContent() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, null));
+        em.flush();
+
+        MemberConditionKey all = key(0);
+        assertThat(searchQueries.count(em, all).getSingleResult())
+                .isEqualTo(searchQueries.content(em, all).getResultList().size());
+
+        MemberConditionKey teamOnly = new MemberConditionKey(null, "teamA", null, null);
+        assertThat(searchQueries.count(em, teamOnly).getSingleResult()).isEqualTo(1);
+        assertThat(searchQueries.content(em, teamOnly).getResultList()).hasSize(1);
+    }
+
+    private static MemberConditionKey key(int shape) {
+        return new MemberConditionKey(
+                (shape & 1) != 0 ? "member1" : null,
+                (shape & 2) != 0 ? "teamA" : null,
+                (shape & 4) != 0 ? 10 : null,
+                (shape & 8) != 0 ? 40 : null);
+    }
+}
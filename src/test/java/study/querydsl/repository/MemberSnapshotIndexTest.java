@@ -0,0 +1,116 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 스냅샷은 커밋된 데이터로 만들어지므로 데이터를 커밋하고 트랜잭션 없이 조회한다.
+ * 갱신 시점을 테스트에서 정하도록 주기/쓰기 후 갱신은 사실상 끈다.
+ */
+@SpringBootTest(properties = {
+        "search.snapshot.enabled=true",
+        "search.snapshot.consistency=strict",
+        "search.snapshot.refresh-interval=1h",
+        "search.snapshot.refresh-after-write-delay=1h"
+})
+class MemberSnapshotIndexTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired MemberSnapshotIndex snapshotIndex;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+            em.persist(new Member("member3", 30, teamB));
+            em.persist(new Member("member4", 40, teamB));
+            em.persist(new Member("member5", 25));
+        });
+        snapshotIndex.refresh();
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void answersEveryShapeLikeTheDatabase() {
+        long hits = snapshotIndex.getHitCount();
+
+        for (int shape = 0; shape < 16; shape++) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setUsername((shape & 1) != 0 ? "member2" : null);
+            condition.setTeamName((shape & 2) != 0 ? "teamA" : null);
+            condition.setAgeGoe((shape & 4) != 0 ? 15 : null);
+            condition.setAgeLoe((shape & 8) != 0 ? 35 : null);
+
+            assertThat(memberRepository.search(condition))
+                    .as("shape %d", shape)
+                    .containsExactlyInAnyOrderElementsOf(memberJpaRepository.searchByBuilder(condition));
+        }
+        assertThat(snapshotIndex.getHitCount() - hits).isEqualTo(16);
+    }
+
+    @Test
+    public void unknownValuesReturnEmpty() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamC");
+        assertThat(memberRepository.search(condition)).isEmpty();
+
+        condition = new MemberSearchCondition();
+        condition.setAgeGoe(100);
+        assertThat(memberRepository.search(condition)).isEmpty();
+    }
+
+    @Test
+    public void strictModeFallsBackAfterWriteUntilRefresh() {
+        tx.executeWithoutResult(status -> em.persist(new Member("member6", 60)));
+
+        long fallbacks = snapshotIndex.getFallbackCount();
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(50);
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("member6");
+        assertThat(snapshotIndex.getFallbackCount()).isEqualTo(fallbacks + 1);
+
+        snapshotIndex.refresh();
+        long hits = snapshotIndex.getHitCount();
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("member6");
+        assertThat(snapshotIndex.getHitCount()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    public void reportsMemoryFootprint() {
+        assertThat(snapshotIndex.size()).isEqualTo(5);
+        assertThat(snapshotIndex.estimatedBytes()).isPositive();
+        assertThat(snapshotIndex.bytesPerMember()).isGreaterThan(20);  // 최소 id(8) + age/username/team 코드(4 * 3)
+    }
+}
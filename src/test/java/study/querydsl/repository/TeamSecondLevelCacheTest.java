@@ -0,0 +1,105 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 2차 캐시는 커밋된 데이터를 트랜잭션 사이에서 공유하므로 데이터를 실제로 커밋하고 트랜잭션을 나눠서 조회한다.
+ */
+@SpringBootTest
+class TeamSecondLevelCacheTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired TeamRepository teamRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+    Statistics statistics;
+    Long teamId;
+    Long memberId;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        tx.executeWithoutResult(status -> {
+            Team cached = new Team("cachedTeam");
+            em.persist(cached);
+            Member member = new Member("member1", 10, cached);
+            em.persist(member);
+            teamId = cached.getId();
+            memberId = member.getId();
+        });
+        em.getEntityManagerFactory().getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void teamHydrationHitsTheCache() {
+        tx.executeWithoutResult(status -> em.find(Team.class, teamId));     // DB에서 읽고 캐시에 넣는다
+
+        long statements = statistics.getPrepareStatementCount();
+        String teamName = tx.execute(status ->
+                em.find(Member.class, memberId).getTeam().getName());     // 지연 로딩 프록시 초기화도 캐시에서
+        tx.executeWithoutResult(status -> em.find(Team.class, teamId));
+
+        assertThat(teamName).isEqualTo("cachedTeam");
+        assertThat(statistics.getPrepareStatementCount() - statements).isEqualTo(1);   // member 조회만
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Team.class.getName());
+        assertThat(region.getHitCount()).isEqualTo(2);
+        assertThat(region.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void bulkUpdateEvictsTheTeamRegion() {
+        tx.executeWithoutResult(status -> em.find(Team.class, teamId));
+
+        tx.executeWithoutResult(status -> new JPAQueryFactory(em)
+                .update(team)
+                .set(team.name, "renamed")
+                .where(team.id.eq(teamId))
+                .execute());
+
+        assertThat(tx.execute(status -> em.find(Team.class, teamId).getName())).isEqualTo("renamed");
+    }
+
+    @Test
+    public void findByNameUsesTheQueryCache() {
+        tx.executeWithoutResult(status -> teamRepository.findByName("cachedTeam"));
+
+        long statements = statistics.getPrepareStatementCount();
+        assertThat(tx.execute(status -> teamRepository.findByName("cachedTeam"))).extracting(Team::getName).containsExactly("cachedTeam");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(statistics.getQueryRegionStatistics("teamByName").getHitCount()).isEqualTo(1);
+
+        // team 테이블이 바뀌면 캐시된 결과는 쓰지 않는다
+        tx.executeWithoutResult(status -> em.persist(new Team("cachedTeam")));
+        assertThat(tx.execute(status -> teamRepository.findByName("cachedTeam"))).hasSize(2);
+    }
+}
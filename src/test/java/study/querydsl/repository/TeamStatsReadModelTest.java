@@ -0,0 +1,182 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 읽기 모델은 커밋된 변경만 반영하므로 데이터를 커밋하고 group by 결과와 비교한다.
+ */
+@SpringBootTest
+class TeamStatsReadModelTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired TeamStatsReadModel readModel;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+    Long teamAId, teamBId, member1Id, member2Id;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member1 = new Member("member1", 10, teamA);
+            Member member2 = new Member("member2", 20, teamA);
+            em.persist(member1);
+            em.persist(member2);
+            em.persist(new Member("member3", 30, teamB));
+            em.persist(new Member("member4", 40, teamB));
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+            member1Id = member1.getId();
+            member2Id = member2.getId();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void matchesGroupByAfterInsert() {
+        TeamStatsDto teamA = stats(teamAId);
+        assertThat(teamA.getMemberCount()).isEqualTo(2);
+        assertThat(teamA.getAverageAge()).isEqualTo(15);
+        assertThat(stats(teamBId).getAverageAge()).isEqualTo(35);
+        assertMatchesGroupBy();
+    }
+
+    @Test
+    public void changeTeamAgeUpdateAndRemove() {
+        readModel.findAll();    // 먼저 계산해 두고 이후는 증분 반영
+
+        tx.executeWithoutResult(status -> {
+            Member member1 = em.find(Member.class, member1Id);
+            member1.changeTeam(em.find(Team.class, teamBId));
+            member1.setAge(50);
+            em.remove(em.find(Member.class, member2Id));
+        });
+
+        TeamStatsDto teamA = stats(teamAId);
+        assertThat(teamA.getMemberCount()).isZero();
+        assertThat(teamA.getMinAge()).isNull();
+        TeamStatsDto teamB = stats(teamBId);
+        assertThat(teamB.getMemberCount()).isEqualTo(3);
+        assertThat(teamB.getMinAge()).isEqualTo(30);
+        assertThat(teamB.getMaxAge()).isEqualTo(50);
+        assertMatchesGroupBy();
+    }
+
+    @Test
+    public void rolledBackChangesAreIgnored() {
+        readModel.findAll();
+
+        tx.executeWithoutResult(status -> {
+            em.find(Member.class, member1Id).setAge(99);
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(stats(teamAId).getMaxAge()).isEqualTo(20);
+    }
+
+    @Test
+    public void rebuildBeforeCommitKeepsDeltas() {
+        readModel.findAll();
+
+        // 재계산이 커밋 전에 끝나면 쿼리는 이 변경을 보지 못했으므로 post-commit 이벤트만으로 맞다
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("member5", 50, em.find(Team.class, teamAId)));
+            em.flush();
+            readModel.rebuild();
+        });
+
+        assertThat(readModel.needsRefresh()).isFalse();
+        assertThat(stats(teamAId).getMemberCount()).isEqualTo(3);
+        assertMatchesGroupBy();
+    }
+
+    @Test
+    public void rebuildOverlappingCommitRecomputesTouchedTeams() {
+        readModel.findAll();
+
+        // DB 커밋 직전(flush 이후)에 재계산: 쿼리가 커밋을 봤는지 알 수 없는 경우
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("member5", 50, em.find(Team.class, teamAId)));
+            em.flush();
+            em.unwrap(SessionImplementor.class).getActionQueue()
+                    .registerProcess((BeforeTransactionCompletionProcess) session -> readModel.rebuild());
+        });
+
+        assertThat(readModel.needsRefresh()).isTrue();  // teamA만 다시 계산한다
+        assertThat(stats(teamAId).getMemberCount()).isEqualTo(3);
+        assertThat(readModel.needsRefresh()).isFalse();
+        assertMatchesGroupBy();
+    }
+
+    @Test
+    public void bulkUpdateTriggersRebuild() {
+        readModel.findAll();
+
+        tx.executeWithoutResult(status -> new JPAQueryFactory(em)
+                .update(member)
+                .set(member.age, member.age.add(1))
+                .execute());
+
+        assertThat(stats(teamAId).getAgeSum()).isEqualTo(32);
+        assertMatchesGroupBy();
+    }
+
+    private TeamStatsDto stats(Long teamId) {
+        return readModel.findAll().stream()
+                .filter(s -> s.getTeamId().equals(teamId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private void assertMatchesGroupBy() {
+        List<Tuple> expected = tx.execute(status -> new JPAQueryFactory(em)
+                .select(team.id, member.count(), member.age.sum(), member.age.min(), member.age.max())
+                .from(member)
+                .join(member.team, team)
+                .groupBy(team.id)
+                .fetch());
+        for (Tuple row : expected) {
+            TeamStatsDto actual = stats(row.get(team.id));
+            assertThat(actual.getMemberCount()).isEqualTo(row.get(member.count()));
+            assertThat(actual.getAgeSum()).isEqualTo(row.get(member.age.sum()).longValue());
+            assertThat(actual.getMinAge()).isEqualTo(row.get(member.age.min()));
+            assertThat(actual.getMaxAge()).isEqualTo(row.get(member.age.max()));
+        }
+    }
+}
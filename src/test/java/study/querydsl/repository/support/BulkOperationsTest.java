@@ -0,0 +1,97 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.monitoring.JdbcStatementCounter;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class BulkOperationsTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired BulkOperations bulkOperations;
+    @Autowired JdbcStatementCounter statementCounter;
+
+    JPAQueryFactory queryFactory;
+    Team teamA;
+    Member member1, member2, member3;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+        teamA = new Team("teamA");
+        em.persist(teamA);
+        member1 = new Member("member1", 10, teamA);
+        member2 = new Member("member2", 20, teamA);
+        member3 = new Member("member3", 30, teamA);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.flush();
+    }
+
+    @Test
+    public void updateIsOneStatementAndLeavesNoStaleReads() {
+        long before = statementCounter.currentThreadCount();
+        long count = bulkOperations.update(member,
+                update -> update.set(member.username, "비회원"),
+                member.age.lt(28));
+        assertThat(count).isEqualTo(2);
+        assertThat(statementCounter.currentThreadCount() - before).isEqualTo(1);
+
+        // flush/clear 없이 다시 조회해도 DB의 값이 보인다
+        List<Member> result = queryFactory.selectFrom(member).orderBy(member.age.asc()).fetch();
+        assertThat(result).extracting("username").containsExactly("비회원", "비회원", "member3");
+    }
+
+    @Test
+    public void updateFlushesPendingChangesFirst() {
+        member3.setAge(25);  // 아직 flush되지 않은 변경
+
+        long count = bulkOperations.update(member,
+                update -> update.set(member.age, member.age.add(1)),
+                member.age.lt(28));
+
+        assertThat(count).isEqualTo(3);
+        assertThat(em.find(Member.class, member3.getId()).getAge()).isEqualTo(26);
+    }
+
+    @Test
+    public void updateByIdsDetachesOnlyThoseIds() {
+        Member untouched = em.find(Member.class, member1.getId());
+
+        bulkOperations.updateByIds(member, member.id, List.of(member2.getId()),
+                update -> update.set(member.age, 99));
+
+        assertThat(em.contains(untouched)).isTrue();
+        assertThat(em.contains(member2)).isFalse();
+        assertThat(em.find(Member.class, member2.getId()).getAge()).isEqualTo(99);
+    }
+
+    @Test
+    public void deleteRefreshesLoadedCollections() {
+        assertThat(teamA.getMembers()).hasSize(3);
+
+        long count = bulkOperations.delete(member, member.age.gt(18));
+
+        assertThat(count).isEqualTo(2);
+        Team reloaded = em.find(Team.class, teamA.getId());
+        assertThat(reloaded).isNotSameAs(teamA);
+        assertThat(reloaded.getMembers()).extracting("username").containsExactly("member1");
+    }
+}
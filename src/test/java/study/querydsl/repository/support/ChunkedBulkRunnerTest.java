@@ -0,0 +1,163 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 청크마다 커밋하므로 데이터를 실제로 커밋하고 트랜잭션 없이 실행한다.
+ */
+@SpringBootTest
+class ChunkedBulkRunnerTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired ChunkedBulkRunner runner;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            for (int i = 1; i <= 50; i++) {
+                em.persist(new Member("member" + i, i, teamA));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from BulkJobChunk").executeUpdate();
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void updateInChunks() {
+        ChunkedBulkRunner.Result result = runner.update("age-bump", member, member.id,
+                update -> update.set(member.age, member.age.add(100)),
+                member.age.loe(30),
+                runner.defaults().withChunkSize(7));
+
+        assertThat(result.affectedRows()).isEqualTo(30);
+        assertThat(result.chunks()).isGreaterThan(1);
+        assertThat(ages()).filteredOn(age -> age > 100).hasSize(30);
+    }
+
+    @Test
+    public void resumeSkipsCommittedChunks() {
+        AtomicInteger calls = new AtomicInteger();
+        ChunkedBulkRunner.Options options = runner.defaults().withChunkSize(10);
+
+        // 두 번째 청크에서 실패: 첫 청크만 커밋된다 (첫 호출은 set 절을 지문에 넣기 위한 기록)
+        assertThatThrownBy(() -> runner.update("age-bump", member, member.id,
+                update -> {
+                    if (calls.incrementAndGet() == 3) {
+                        throw new IllegalStateException("crash");
+                    }
+                    update.set(member.age, member.age.add(1));
+                },
+                null, options))
+                .isInstanceOf(IllegalStateException.class);
+
+        ChunkedBulkRunner.Result resumed = runner.update("age-bump", member, member.id,
+                update -> update.set(member.age, member.age.add(1)),
+                null, options);
+
+        assertThat(resumed.skippedChunks()).isEqualTo(1);
+        // 모든 회원이 정확히 한 번씩 증가
+        List<Member> members = tx.execute(status -> new JPAQueryFactory(em).selectFrom(member).fetch());
+        assertThat(members).allMatch(m -> m.getAge() == Integer.parseInt(m.getUsername().substring(6)) + 1);
+    }
+
+    @Test
+    public void refusesToResumeWithOtherChunkSizeOrPredicate() {
+        AtomicInteger calls = new AtomicInteger();
+        assertThatThrownBy(() -> runner.update("age-bump", member, member.id,
+                update -> {
+                    if (calls.incrementAndGet() == 3) {
+                        throw new IllegalStateException("crash");
+                    }
+                    update.set(member.age, member.age.add(1));
+                },
+                member.age.loe(30), runner.defaults().withChunkSize(10)))
+                .hasMessage("crash");
+
+        // 청크 경계가 어긋나면 이미 증가한 행이 다시 증가할 수 있다
+        assertThatThrownBy(() -> runner.update("age-bump", member, member.id,
+                update -> update.set(member.age, member.age.add(1)),
+                member.age.loe(30), runner.defaults().withChunkSize(7)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("chunkSize 10");
+        assertThatThrownBy(() -> runner.update("age-bump", member, member.id,
+                update -> update.set(member.age, member.age.add(1)),
+                member.age.loe(40), runner.defaults().withChunkSize(10)))
+                .isInstanceOf(IllegalStateException.class);
+        // set 절이 다르면 남은 청크에 다른 변경이 적용된다
+        assertThatThrownBy(() -> runner.update("age-bump", member, member.id,
+                update -> update.set(member.age, member.age.add(2)),
+                member.age.loe(30), runner.defaults().withChunkSize(10)))
+                .isInstanceOf(IllegalStateException.class);
+
+        runner.reset("age-bump");
+        assertThat(runner.update("age-bump", member, member.id,
+                update -> update.set(member.age, member.age.add(1)),
+                member.age.loe(40), runner.defaults().withChunkSize(7)).skippedChunks()).isZero();
+    }
+
+    @Test
+    public void skipsRangesWithoutTargetRows() {
+        ChunkedBulkRunner.Result result = runner.delete("delete-edges", member, member.id,
+                member.age.loe(5).or(member.age.gt(45)),
+                runner.defaults().withChunkSize(5));
+
+        assertThat(result.affectedRows()).isEqualTo(10);
+        assertThat(result.chunks()).isLessThanOrEqualTo(4);    // 가운데 빈 범위는 커밋/기록하지 않는다
+        assertThat(tx.execute(status -> em.createQuery("select count(c) from BulkJobChunk c", Long.class).getSingleResult()))
+                .isEqualTo((long) result.chunks());
+    }
+
+    @Test
+    public void parallelDelete() {
+        ChunkedBulkRunner.Result result = runner.delete("delete-young", member, member.id,
+                member.age.lt(40),
+                runner.defaults().withChunkSize(5).withParallelism(3));
+
+        assertThat(result.affectedRows()).isEqualTo(39);
+        assertThat(ages()).hasSize(11).allMatch(age -> age >= 40);
+    }
+
+    @Test
+    public void refusesToRunInsideTransaction() {
+        assertThatThrownBy(() -> tx.executeWithoutResult(status ->
+                runner.delete("in-tx", member, member.id, null, runner.defaults())))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private List<Integer> ages() {
+        return tx.execute(status -> new JPAQueryFactory(em).select(member.age).from(member).fetch());
+    }
+}
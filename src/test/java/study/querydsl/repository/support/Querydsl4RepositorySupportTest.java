@@ -0,0 +1,155 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberTestRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@SpringBootTest
+@Transactional
+class Querydsl4RepositorySupportTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired MemberTestRepository memberTestRepository;
+
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 1; i <= 10; i++) {
+            em.persist(new Member("member" + i, i * 10, i % 2 == 0 ? teamA : teamB));
+        }
+        em.persist(new Member("noTeam", 55, null));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void derivedCountMatchesContent() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(35);
+        Page<Member> page = memberTestRepository.searchPageByApplyPage(condition, PageRequest.of(0, 3, Sort.by("age")));
+        assertThat(page.getContent()).hasSize(3);
+        assertThat(page.getTotalElements()).isEqualTo(8);   // 40~100 7명 + 팀 없는 회원
+
+        condition.setTeamName("teamA");
+        page = memberTestRepository.searchPageByApplyPage(condition, PageRequest.of(0, 3));
+        assertThat(page.getTotalElements()).isEqualTo(4);   // 40, 60, 80, 100
+    }
+
+    @Test
+    public void unreferencedToOneLeftJoinIsPruned() {
+        JPAQuery<Member> content = queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin()
+                .where(member.age.goe(35))
+                .orderBy(member.username.desc())
+                .offset(3).limit(3);
+
+        JPAQuery<Long> count = memberTestRepository.deriveCountQuery(content);
+
+        String jpql = count.toString();
+        assertThat(jpql).startsWith("select count(member1.id)");
+        assertThat(jpql).doesNotContainIgnoringCase("join").doesNotContainIgnoringCase("order by");
+        assertThat(count.fetchOne()).isEqualTo(8);
+    }
+
+    @Test
+    public void referencedJoinIsKept() {
+        JPAQuery<Member> content = queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team)
+                .where(team.name.eq("teamB"));
+
+        JPAQuery<Long> count = memberTestRepository.deriveCountQuery(content);
+
+        assertThat(count.toString()).contains("left join member1.team as team");
+        assertThat(count.fetchOne()).isEqualTo(5);
+    }
+
+    @Test
+    public void collectionJoinIsKept() {
+        JPAQuery<Team> content = queryFactory
+                .selectFrom(team)
+                .leftJoin(team.members, member);
+
+        JPAQuery<Long> count = memberTestRepository.deriveCountQuery(content);
+
+        assertThat(count.toString()).contains("left join team.members as member1");
+        assertThat(count.fetchOne()).isEqualTo(content.fetch().size());
+    }
+
+    @Test
+    public void groupByIsCountedWithCountDistinct() {
+        JPAQuery<Integer> content = queryFactory
+                .select(member.age.max())
+                .from(member)
+                .groupBy(member.team);
+
+        assertThat(memberTestRepository.deriveCountQuery(content)).isNull();
+        JPAQuery<Long> count = memberTestRepository.deriveDistinctCountQuery(content);
+        assertThat(count.toString()).startsWith("select count(distinct member1.team)").doesNotContain("group by");
+        assertThat(count.fetchOne()).isEqualTo(3);  // teamA, teamB, 팀 없음(null 그룹)
+        assertThat(memberTestRepository.countOf(content).getAsLong()).isEqualTo(3);
+    }
+
+    @Test
+    public void distinctIsCountedWithCountDistinct() {
+        JPAQuery<String> content = queryFactory
+                .selectDistinct(team.name)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(member.age.goe(50));
+
+        JPAQuery<Long> count = memberTestRepository.deriveDistinctCountQuery(content);
+        assertThat(content.fetch()).hasSize(3);     // teamA, teamB, null
+        assertThat(count.fetchOne()).isEqualTo(3);
+    }
+
+    @Test
+    public void shapesWithoutCountQueryAreRejected() {
+        JPAQuery<Integer> having = queryFactory
+                .select(member.age.max())
+                .from(member)
+                .groupBy(member.team)
+                .having(member.count().gt(1L));
+        JPAQuery<Integer> groupByTwoKeys = queryFactory
+                .select(member.age.max())
+                .from(member)
+                .groupBy(member.team, member.age);
+        JPAQuery<Tuple> distinctTwoColumns = queryFactory
+                .selectDistinct(member.username, member.age)
+                .from(member);
+
+        // 결과를 모두 읽어서 세지 않는다: count 쿼리를 직접 넘겨야 한다
+        assertThat(memberTestRepository.deriveDistinctCountQuery(having)).isNull();
+        assertThatThrownBy(() -> memberTestRepository.countOf(having)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> memberTestRepository.countOf(groupByTwoKeys)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> memberTestRepository.countOf(distinctTwoColumns)).isInstanceOf(IllegalArgumentException.class);
+    }
+}